@@ -26,15 +26,13 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
-import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
-
 /**
  * abs(a);
  * Returns the absolute value of 'a'. For example, the absolute value of 3 is
@@ -70,7 +68,7 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                         "or abs(-3),the function returns 3 since the absolute value of both 3 and -3 is 3. " +
                         "The result directed to OutMediationStream stream.")
 )
-public class AbsFunctionExtension extends FunctionExecutor {
+public class AbsFunctionExtension extends NumericFunctionExecutor {
 
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
@@ -89,7 +87,7 @@ public class AbsFunctionExtension extends FunctionExecutor {
                     " or " + Attribute.Type.FLOAT + " or " + Attribute.Type.DOUBLE +
                     ", but found " + attributeType.toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
@@ -101,7 +99,7 @@ public class AbsFunctionExtension extends FunctionExecutor {
     @Override
     protected Object execute(Object data, State state) {
         if (data != null) {
-            return Math.abs(convertToDouble(data));
+            return Math.abs(toDouble(data, 0));
         }
         return null;
     }
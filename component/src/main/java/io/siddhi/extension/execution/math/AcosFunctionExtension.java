@@ -26,15 +26,13 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
-import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
-
 /**
  * acos(a);
  * Returns the arc-cosine(inverse cosine) of 'a' if -1&lt;=a&lt;=1 or NULL otherwise. The return value is in radian
@@ -73,7 +71,7 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                         "OutMediationStream. For " +
                         "example, acos(0.5) returns 1.0471975511965979.")
 )
-public class AcosFunctionExtension extends FunctionExecutor {
+public class AcosFunctionExtension extends NumericFunctionExecutor {
 
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
@@ -89,7 +87,7 @@ public class AcosFunctionExtension extends FunctionExecutor {
                     "function, required " + Attribute.Type.FLOAT + " or " + Attribute.Type.DOUBLE +
                     " but found " + attributeType.toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
@@ -101,7 +99,7 @@ public class AcosFunctionExtension extends FunctionExecutor {
     @Override
     protected Object execute(Object data, State state) {
         if (data != null) {
-            return Math.acos(convertToDouble(data));
+            return Math.acos(toDouble(data, 0));
         }
         return null;
     }
@@ -26,15 +26,13 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
-import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
-
 /**
  * asin(a);
  * Returns the arc sin(inverse sine) of a if -1&lt;=a&lt;=1 or NULL otherwise. The return value is in radian scale.
@@ -70,7 +68,7 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                         "value of it and returns the arc-sin value to the output stream, OutMediationStream. For "  +
                         "example, asin(0.5) returns 0.5235987755982989.")
 )
-public class AsinFunctionExtension extends FunctionExecutor {
+public class AsinFunctionExtension extends NumericFunctionExecutor {
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
                                 SiddhiQueryContext siddhiQueryContext) {
@@ -85,7 +83,7 @@ public class AsinFunctionExtension extends FunctionExecutor {
                     "function, required " + Attribute.Type.FLOAT + " or " + Attribute.Type.DOUBLE +
                     " but found " + attributeType.toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
@@ -97,7 +95,7 @@ public class AsinFunctionExtension extends FunctionExecutor {
     @Override
     protected Object execute(Object data, State state) {
         if (data != null) {
-            return Math.asin(convertToDouble(data));
+            return Math.asin(toDouble(data, 0));
         }
         return null;
     }
@@ -26,15 +26,13 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
-import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
-
 /**
  * atan(a); or atan(a,b);
  * Returns the arc-tangent(inverse tangent). The return value is in radian scale.
@@ -86,7 +84,7 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                          "arc-tangent value to the output stream, OutMediationStream. " +
                          "For example, atan(12d, 5d) returns 1.1760052070951352.")
 )
-public class AtanFunctionExtension extends FunctionExecutor {
+public class AtanFunctionExtension extends NumericFunctionExecutor {
 
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
@@ -110,13 +108,13 @@ public class AtanFunctionExtension extends FunctionExecutor {
             }
             attributeIndex++;
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
     protected Object execute(Object[] data, State state) {
         if (data[0] != null && data[1] != null) {
-            return Math.atan2(convertToDouble(data[0]), convertToDouble(data[1]));
+            return Math.atan2(toDouble(data[0], 0), toDouble(data[1], 1));
         }
         return null;
     }
@@ -124,7 +122,7 @@ public class AtanFunctionExtension extends FunctionExecutor {
     @Override
     protected Object execute(Object data, State state) {
         if (data != null) {
-            return Math.atan(convertToDouble(data));
+            return Math.atan(toDouble(data, 0));
         }
         return null;
     }
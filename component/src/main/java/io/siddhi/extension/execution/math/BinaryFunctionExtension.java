@@ -26,10 +26,10 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.MathFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
@@ -71,7 +71,7 @@ import io.siddhi.query.api.exception.SiddhiAppValidationException;
                         "converts it into an unsigned integer in base 2 and directs the output to the " +
                         "output stream, OutMediationStream. For example, bin(9) returns '1001'.")
 )
-public class BinaryFunctionExtension extends FunctionExecutor {
+public class BinaryFunctionExtension extends MathFunctionExecutor {
 
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
@@ -86,7 +86,7 @@ public class BinaryFunctionExtension extends FunctionExecutor {
                     "function, required " + Attribute.Type.INT + " or " + Attribute.Type.LONG +
                     ", but found " + attributeType.toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
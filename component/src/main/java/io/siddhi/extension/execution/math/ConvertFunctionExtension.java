@@ -23,26 +23,31 @@ import io.siddhi.annotation.Extension;
 import io.siddhi.annotation.Parameter;
 import io.siddhi.annotation.ParameterOverload;
 import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.SystemParameter;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.MathFunctionExecutor;
+import io.siddhi.extension.execution.math.util.RadixConverter;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
 /**
  * conv(a,fromBase,toBase)
  * convert the value from one base to other base.
- * Accept Type(s): STRING, INT, INT
+ * Accept Type(s): STRING, INT, INT, STRING
  * Return Type(s): STRING
  */
 @Extension(
         name = "conv",
         namespace = "math",
-        description = "This function converts `a` from the `fromBase` base to the `toBase` base.",
+        description = "This function converts `a` from the `fromBase` base to the `toBase` base. `a` can be an " +
+                "integer of any width, so 64 bit identifiers such as MAC addresses and serial numbers, signed or " +
+                "unsigned, are converted exactly.",
         parameters = {
                 @Parameter(
                         name = "a",
@@ -51,17 +56,37 @@ import io.siddhi.query.api.exception.SiddhiAppValidationException;
                         dynamic = true),
                 @Parameter(
                         name = "from.base",
-                        description = "The source base of the input parameter 'a'.",
+                        description = "The source base of the input parameter 'a', between 2 and 36.",
                         type = {DataType.INT},
                         dynamic = true),
                 @Parameter(
                         name = "to.base",
-                        description = "The target base that the input parameter 'a' should be converted into.",
+                        description = "The target base that the input parameter 'a' should be converted into, " +
+                                "between 2 and 36.",
                         type = {DataType.INT},
-                        dynamic = true)
+                        dynamic = true),
+                @Parameter(
+                        name = "on.error",
+                        description = "What to do when 'a' is not an integer in the from.base base, or when a " +
+                                "base read from an attribute is not between 2 and 36: `throw` an exception, or " +
+                                "return `null` without raising one. A constant base out of that range is " +
+                                "rejected when the query is created.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "the `on.error` system parameter")
         },
         parameterOverloads = {
-                @ParameterOverload(parameterNames = {"a", "from.base", "to.base"})
+                @ParameterOverload(parameterNames = {"a", "from.base", "to.base"}),
+                @ParameterOverload(parameterNames = {"a", "from.base", "to.base", "on.error"})
+        },
+        systemParameter = {
+                @SystemParameter(
+                        name = "on.error",
+                        description = "What to do when 'a' is not an integer in the from.base base, or when a " +
+                                "base read from an attribute is not between 2 and 36, and the query does not " +
+                                "give an on.error argument.",
+                        defaultValue = "throw",
+                        possibleParameters = {"throw", "null"})
         },
         returnAttributes = @ReturnAttribute(
                 description = "The value of the parameter 'a' when converted from the source base to the target base." +
@@ -79,14 +104,18 @@ import io.siddhi.query.api.exception.SiddhiAppValidationException;
                               "and directs it to the output stream, OutMediationStream. " +
                               "For example, conv(\"7f\", 16, 10) returns \"127\".")
 )
-public class ConvertFunctionExtension extends FunctionExecutor {
+public class ConvertFunctionExtension extends MathFunctionExecutor {
+
+    private static final int NOT_CONSTANT = -1;
+    private int constantFromBase = NOT_CONSTANT;
+    private int constantToBase = NOT_CONSTANT;
 
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
                                 SiddhiQueryContext siddhiQueryContext) {
-        if (attributeExpressionExecutors.length != 3) {
+        if (attributeExpressionExecutors.length < 3 || attributeExpressionExecutors.length > 4) {
             throw new SiddhiAppValidationException("Invalid no of arguments passed to math:conv() function, " +
-                    "required 3, but found " + attributeExpressionExecutors.length);
+                    "required 3 or 4, but found " + attributeExpressionExecutors.length);
         }
         if (attributeExpressionExecutors[0].getReturnType() != Attribute.Type.STRING) {
             throw new SiddhiAppValidationException("Invalid parameter type found for the first argument of " +
@@ -103,21 +132,56 @@ public class ConvertFunctionExtension extends FunctionExecutor {
                     "math:conv() function, required " + Attribute.Type.INT + ", but found " +
                     attributeExpressionExecutors[2].getReturnType().toString());
         }
-        return null;
+        if (isConstant(1) && getConstant(1) != null) {
+            constantFromBase = validateConstantBase((Integer) getConstant(1), "second");
+        }
+        if (isConstant(2) && getConstant(2) != null) {
+            constantToBase = validateConstantBase((Integer) getConstant(2), "third");
+        }
+        initOnError(configReader, 3, "math:conv()");
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
     protected Object execute(Object[] data, State state) {
         if (data[0] != null && data[1] != null && data[2] != null) {
             String nValue = (String) data[0];
-            int fromBase = (Integer) data[1];
-            int toBase = (Integer) data[2];
-            return Integer.toString(
-                    Integer.parseInt(nValue, fromBase), toBase);
+            int fromBase = constantFromBase != NOT_CONSTANT ? constantFromBase : (Integer) data[1];
+            int toBase = constantToBase != NOT_CONSTANT ? constantToBase : (Integer) data[2];
+            if (!isValidBase(fromBase) || !isValidBase(toBase)) {
+                if (throwsOnError()) {
+                    throw new SiddhiAppRuntimeException("Invalid base " + (isValidBase(fromBase) ? toBase : fromBase)
+                            + " for math:conv() function, it is not between " + Character.MIN_RADIX + " and "
+                            + Character.MAX_RADIX);
+                }
+                return invalidInput();
+            }
+            String result = RadixConverter.convert(nValue, fromBase, toBase);
+            if (result != null) {
+                return result;
+            }
+            if (throwsOnError()) {
+                throw new SiddhiAppRuntimeException("Invalid input '" + nValue + "' for math:conv() function, " +
+                        "it is not an integer in base " + fromBase);
+            }
+            return invalidInput();
         }
         return null;
     }
 
+    private static int validateConstantBase(int base, String argument) {
+        if (!isValidBase(base)) {
+            throw new SiddhiAppValidationException("Invalid base found for the " + argument + " argument of " +
+                    "math:conv() function, required a base between " + Character.MIN_RADIX + " and " +
+                    Character.MAX_RADIX + ", but found " + base);
+        }
+        return base;
+    }
+
+    private static boolean isValidBase(int base) {
+        return base >= Character.MIN_RADIX && base <= Character.MAX_RADIX;
+    }
+
     @Override
     protected Object execute(Object data, State state) {
         return null;    // This method won't get called. Hence, unimplemented.
@@ -26,15 +26,13 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
-import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
-
 /**
  * copysign(magnitude,sign);
  * Returns the first argument with the sign of the second argument.
@@ -76,7 +74,7 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                                "the result to the output stream, OutMediatonStream. For example, " +
                                "copySign(5.6d, -3.0d) returns -5.6.")
 )
-public class CopySignFunctionExtension extends FunctionExecutor {
+public class CopySignFunctionExtension extends NumericFunctionExecutor {
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
                                 SiddhiQueryContext siddhiQueryContext) {
@@ -104,13 +102,13 @@ public class CopySignFunctionExtension extends FunctionExecutor {
                     " or " + Attribute.Type.FLOAT + " or " + Attribute.Type.DOUBLE +
                     ", but found " + attributeType.toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
     protected Object execute(Object[] data, State state) {
         if (data[0] != null && data[1] != null) {
-            return Math.copySign(convertToDouble(data[0]), convertToDouble(data[1]));
+            return Math.copySign(toDouble(data[0], 0), toDouble(data[1], 1));
         }
         return null;
     }
@@ -26,15 +26,13 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
-import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
-
 /**
  * cos(a);
  * Returns the cosine of a (a is in radians).
@@ -70,7 +68,7 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                         "the same and directs the output to the output stream, OutMediationStream. For example, " +
                         "cos(6d) returns 0.9601702866503661.")
 )
-public class CosFunctionExtension extends FunctionExecutor {
+public class CosFunctionExtension extends NumericFunctionExecutor {
 
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
@@ -89,7 +87,7 @@ public class CosFunctionExtension extends FunctionExecutor {
                     " or " + Attribute.Type.FLOAT + " or " + Attribute.Type.DOUBLE +
                     ", but found " + attributeType.toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
@@ -100,7 +98,7 @@ public class CosFunctionExtension extends FunctionExecutor {
     @Override
     protected Object execute(Object data, State state) {
         if (data != null) {
-            return Math.cos(convertToDouble(data));
+            return Math.cos(toDouble(data, 0));
         }
         return null;
     }
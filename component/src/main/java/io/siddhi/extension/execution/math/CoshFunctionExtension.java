@@ -26,15 +26,13 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
-import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
-
 /**
  * cosh(a);
  * Returns the hyperbolic cosine of a (a is in radians).
@@ -70,7 +68,7 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                        " the same and directs the output to the output stream, OutMediationStream. For example, " +
                         "cosh (6d) returns 201.7156361224559.")
 )
-public class CoshFunctionExtension extends FunctionExecutor {
+public class CoshFunctionExtension extends NumericFunctionExecutor {
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
                                 SiddhiQueryContext siddhiQueryContext) {
@@ -88,7 +86,7 @@ public class CoshFunctionExtension extends FunctionExecutor {
                     " or " + Attribute.Type.FLOAT + " or " + Attribute.Type.DOUBLE +
                     ", but found " + attributeType.toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
@@ -99,7 +97,7 @@ public class CoshFunctionExtension extends FunctionExecutor {
     @Override
     protected Object execute(Object data, State state) {
         if (data != null) {
-            return Math.cosh(convertToDouble(data));
+            return Math.cosh(toDouble(data, 0));
         }
         return null;
     }
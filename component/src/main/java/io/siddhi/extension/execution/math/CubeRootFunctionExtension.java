@@ -26,15 +26,13 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
-import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
-
 /**
  * cbrt(a);
  * Returns the cube-root of a (a is in radians).
@@ -70,7 +68,7 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                               "the same and directs the output to the output stream, OutMediationStream. " +
                               "For example, cbrt(17d) returns 2.5712815906582356.")
 )
-public class CubeRootFunctionExtension extends FunctionExecutor {
+public class CubeRootFunctionExtension extends NumericFunctionExecutor {
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
                                 SiddhiQueryContext siddhiQueryContext) {
@@ -88,7 +86,7 @@ public class CubeRootFunctionExtension extends FunctionExecutor {
                     " or " + Attribute.Type.FLOAT + " or " + Attribute.Type.DOUBLE +
                     ", but found " + attributeType.toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
@@ -99,7 +97,7 @@ public class CubeRootFunctionExtension extends FunctionExecutor {
     @Override
     protected Object execute(Object data, State state) {
         if (data != null) {
-            return Math.cbrt(convertToDouble(data));
+            return Math.cbrt(toDouble(data, 0));
         }
         return null;
     }
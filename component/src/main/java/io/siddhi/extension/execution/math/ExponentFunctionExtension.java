@@ -26,15 +26,13 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
-import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
-
 /**
  * exp(a)
  * Returns Euler's number e raised to the power of 'a' - the input argument
@@ -69,7 +67,7 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                         "corresponding Euler's number 'e' and directs it to the output stream, " +
                         "OutMediationStream. For example, exp(10.23) returns 27722.51006805505.")
 )
-public class ExponentFunctionExtension extends FunctionExecutor {
+public class ExponentFunctionExtension extends NumericFunctionExecutor {
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
                                 SiddhiQueryContext siddhiQueryContext) {
@@ -87,7 +85,7 @@ public class ExponentFunctionExtension extends FunctionExecutor {
                     " or " + Attribute.Type.FLOAT + " or " + Attribute.Type.DOUBLE +
                     ", but found " + attributeType.toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
@@ -98,7 +96,7 @@ public class ExponentFunctionExtension extends FunctionExecutor {
     @Override
     protected Object execute(Object data, State state) {
         if (data != null) {
-            return Math.exp(convertToDouble(data));
+            return Math.exp(toDouble(data, 0));
         }
         return null;
     }
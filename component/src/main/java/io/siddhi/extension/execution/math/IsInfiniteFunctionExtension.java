@@ -26,10 +26,10 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.MathFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
@@ -71,7 +71,7 @@ import io.siddhi.query.api.exception.SiddhiAppValidationException;
                         "result to the output stream, OutMediationStream'. For example, " +
                         "isInfinite(java.lang.Double.POSITIVE_INFINITY) returns true.")
 )
-public class IsInfiniteFunctionExtension extends FunctionExecutor {
+public class IsInfiniteFunctionExtension extends MathFunctionExecutor {
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
                                 SiddhiQueryContext siddhiQueryContext) {
@@ -86,7 +86,7 @@ public class IsInfiniteFunctionExtension extends FunctionExecutor {
                     Attribute.Type.DOUBLE + ", but found " +
                     attributeExpressionExecutors[0].getReturnType().toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
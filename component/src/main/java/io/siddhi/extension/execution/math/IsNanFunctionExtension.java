@@ -26,10 +26,10 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.MathFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
@@ -68,7 +68,7 @@ import io.siddhi.query.api.exception.SiddhiAppValidationException;
                         " considers it as an 'NaN' value and directs 'True' to the output stream, " +
                         "OutMediationStream. For example, isNan(java.lang.Math.log(-12d)) returns true.")
 )
-public class IsNanFunctionExtension extends FunctionExecutor {
+public class IsNanFunctionExtension extends MathFunctionExecutor {
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
                                 SiddhiQueryContext siddhiQueryContext) {
@@ -83,7 +83,7 @@ public class IsNanFunctionExtension extends FunctionExecutor {
                     Attribute.Type.DOUBLE + ", but found " +
                     attributeExpressionExecutors[0].getReturnType().toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
@@ -26,15 +26,13 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
-import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
-
 /**
  * log10(a);
  * Returns the base 10 logarithm of 'a'.
@@ -68,7 +66,7 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                         "base 10 logarithm of the same and directs the result to the output stream, " +
                         "OutMediatioStream. For example, log10(19.234) returns 1.2840696117100832.")
 )
-public class Log10FunctionExtension extends FunctionExecutor {
+public class Log10FunctionExtension extends NumericFunctionExecutor {
 
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
@@ -87,7 +85,7 @@ public class Log10FunctionExtension extends FunctionExecutor {
                     " or " + Attribute.Type.FLOAT + " or " + Attribute.Type.DOUBLE +
                     ", but found " + attributeType.toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
@@ -98,7 +96,7 @@ public class Log10FunctionExtension extends FunctionExecutor {
     @Override
     protected Object execute(Object data, State state) {
         if (data != null) {
-            return Math.log10(convertToDouble(data));
+            return Math.log10(toDouble(data, 0));
         }
         return null;
     }
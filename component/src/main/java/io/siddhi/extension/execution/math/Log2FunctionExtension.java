@@ -26,15 +26,13 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
-import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
-
 /**
  * log2(a);
  * Returns the base 2 logarithm of 'a'.
@@ -68,7 +66,7 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                         "the base 2 logarithm of the same and returns the value to the output stream, " +
                         "OutMediationStream. For example log2(91d) returns 6.507794640198696.")
 )
-public class Log2FunctionExtension extends FunctionExecutor {
+public class Log2FunctionExtension extends NumericFunctionExecutor {
 
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
@@ -87,7 +85,7 @@ public class Log2FunctionExtension extends FunctionExecutor {
                     " or " + Attribute.Type.FLOAT + " or " + Attribute.Type.DOUBLE +
                     ", but found " + attributeType.toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
@@ -98,7 +96,7 @@ public class Log2FunctionExtension extends FunctionExecutor {
     @Override
     protected Object execute(Object data, State state) {
         if (data != null) {
-            return Math.log(convertToDouble(data)) / Math.log(2d);
+            return Math.log(toDouble(data, 0)) / Math.log(2d);
         }
         return null;
     }
@@ -23,19 +23,18 @@ import io.siddhi.annotation.Extension;
 import io.siddhi.annotation.Parameter;
 import io.siddhi.annotation.ParameterOverload;
 import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.SystemParameter;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.exception.SiddhiAppRuntimeException;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
-import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
-
 /**
  * log(number,base);
  * Returns the logarithm (base='base') of the given 'number'.
@@ -57,10 +56,26 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                         name = "base",
                         description = "The base value of the ouput.",
                         type = {DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE},
-                        dynamic = true)
+                        dynamic = true),
+                @Parameter(
+                        name = "on.error",
+                        description = "What to do when the base is 1, for which the logarithm is undefined: `throw` " +
+                                "an exception, or return `null` or `nan` without raising one.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "the `on.error` system parameter")
         },
         parameterOverloads = {
-                @ParameterOverload(parameterNames = {"number", "base"})
+                @ParameterOverload(parameterNames = {"number", "base"}),
+                @ParameterOverload(parameterNames = {"number", "base", "on.error"})
+        },
+        systemParameter = {
+                @SystemParameter(
+                        name = "on.error",
+                        description = "What to do when the base is 1 and the query does not give an on.error " +
+                                "argument.",
+                        defaultValue = "throw",
+                        possibleParameters = {"throw", "null", "nan"})
         },
         returnAttributes = @ReturnAttribute(
                 description = "The logarithm value of the 'number' parameter to the base, 'base' parameter.",
@@ -76,14 +91,18 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                         "result to the output stream, OutMediationStream. " +
                         "For example, log(34, 2f) returns 5.08746284125034.")
 )
-public class LogFunctionExtension extends FunctionExecutor {
+public class LogFunctionExtension extends NumericFunctionExecutor {
+
+    private boolean constantBase;
+    private boolean base10;
+    private double logOfBase;
 
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
                                 SiddhiQueryContext siddhiQueryContext) {
-        if (attributeExpressionExecutors.length != 2) {
+        if (attributeExpressionExecutors.length < 2 || attributeExpressionExecutors.length > 3) {
             throw new SiddhiAppValidationException("Invalid no of arguments passed to math:log() function, " +
-                    "required 2, but found " + attributeExpressionExecutors.length);
+                    "required 2 or 3, but found " + attributeExpressionExecutors.length);
         }
         Attribute.Type attributeType = attributeExpressionExecutors[0].getReturnType();
         if (!((attributeType == Attribute.Type.DOUBLE)
@@ -105,20 +124,39 @@ public class LogFunctionExtension extends FunctionExecutor {
                     " or " + Attribute.Type.FLOAT + " or " + Attribute.Type.DOUBLE +
                     ", but found " + attributeType.toString());
         }
-        return null;
+        if (isConstant(1) && getConstant(1) != null) {
+            double base = ((Number) getConstant(1)).doubleValue();
+            // base 1 is left to fail per event
+            if (base != 1) {
+                constantBase = true;
+                base10 = base == 10;
+                logOfBase = Math.log(base);
+            }
+        }
+        initOnError(configReader, 2, "math:log()");
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
     protected Object execute(Object[] data, State state) {
         if (data[0] != null && data[1] != null) {
-            double number = convertToDouble(data[0]);
-            double base = convertToDouble(data[1]);
+            double number = toDouble(data[0], 0);
+            if (base10) {
+                return Math.log10(number);
+            } else if (constantBase) {
+                return Math.log(number) / logOfBase;
+            }
+            double base = toDouble(data[1], 1);
             if (base == 1) {
+                if (!throwsOnError()) {
+                    return invalidInput();
+                }
                 throw new SiddhiAppRuntimeException("The base argument supplied to the math:log() function "
                         + "is equal to zero. Since the logarithms to the base 1 is undefined, "
                         + "the result of math:log(" + number + "," + base + ") is undefined");
             }
-            return Math.log(number) / Math.log(base);
+            // as for a constant base, so that log(1000, 10) is 3.0 whether the base is constant or not
+            return base == 10 ? Math.log10(number) : Math.log(number) / Math.log(base);
         }
         return null;
     }
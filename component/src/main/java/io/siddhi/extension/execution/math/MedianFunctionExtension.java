@@ -0,0 +1,248 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.math;
+
+import io.siddhi.annotation.Example;
+import io.siddhi.annotation.Extension;
+import io.siddhi.annotation.Parameter;
+import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.util.DataType;
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.exception.OperationNotSupportedException;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.query.processor.ProcessingMode;
+import io.siddhi.core.query.selector.attribute.aggregator.AttributeAggregatorExecutor;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.PercentileAttributeState;
+import io.siddhi.extension.execution.math.util.StreamingMedian;
+import io.siddhi.query.api.definition.Attribute;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static io.siddhi.extension.execution.math.util.MathUtil.fromSortableLong;
+import static io.siddhi.extension.execution.math.util.MathUtil.toSortableLong;
+
+/**
+ * AttributeAggregator which implements the following function.
+ * <code>median(value)</code>
+ * Returns the median of the stored values.
+ * Accept Type(s): value: FLOAT,INT,LONG,DOUBLE
+ * Return Type: DOUBLE
+ */
+@Extension(
+        name = "median",
+        namespace = "math",
+        description = "This function returns the median of a given argument, which is the middle value, or the " +
+                "average of the two middle values when there is an even number of values. It gives the same " +
+                "result as `math:percentile(arg, 50.0)`, but keeps the values in a max heap and a min heap so " +
+                "that each event costs O(log n) and the median is read in constant time.",
+        parameters = {
+                @Parameter(
+                        name = "arg",
+                        description = "The value of the parameter whose median should be found.",
+                        type = {DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE},
+                        dynamic = true)
+        },
+        returnAttributes = @ReturnAttribute(
+                description = "The median of the 'arg' values.",
+                type = {DataType.DOUBLE}),
+        examples = @Example(
+                syntax = "define stream InValueStream (sensorId int, temperature double); \n" +
+                        "from InValueStream#window.length(100) \n" +
+                        "select math:median(temperature) as median \n" +
+                        "insert into OutMediationStream;",
+                description = "This function returns the median of the last 100 temperature events."
+        )
+)
+public class MedianFunctionExtension extends AttributeAggregatorExecutor<PercentileAttributeState> {
+
+    private static final String MEDIAN = "MEDIAN";
+
+    @Override
+    protected StateFactory<PercentileAttributeState> init(ExpressionExecutor[] expressionExecutors,
+                                                          ProcessingMode processingMode, boolean b,
+                                                          ConfigReader configReader,
+                                                          SiddhiQueryContext siddhiQueryContext) {
+        if (attributeExpressionExecutors.length != 1) {
+            throw new OperationNotSupportedException("Median function has to have exactly 1 parameter, currently "
+                                                             + attributeExpressionExecutors.length +
+                                                             " parameters provided.");
+        }
+        Attribute.Type attributeType = attributeExpressionExecutors[0].getReturnType();
+        // This approach is used to avoid per event type check as it has a negative performance impact.
+        return () -> {
+            switch (attributeType) {
+                case FLOAT:
+                    return new FloatMedianAttributeState();
+                case INT:
+                    return new IntMedianAttributeState();
+                case LONG:
+                    return new LongMedianAttributeState();
+                case DOUBLE:
+                    return new DoubleMedianAttributeState();
+                default:
+                    throw new OperationNotSupportedException("Median not supported for " + attributeType);
+            }
+        };
+    }
+
+    @Override
+    public Object processAdd(Object data, PercentileAttributeState state) {
+        if (data == null) {
+            return state.currentValue();
+        }
+        return state.processAdd(data);
+    }
+
+    @Override
+    public Object processAdd(Object[] data, PercentileAttributeState state) {
+        // will not occur
+        return new IllegalStateException("Median cannot process data array, but found " + Arrays.deepToString(data));
+    }
+
+    @Override
+    public Object processRemove(Object data, PercentileAttributeState state) {
+        if (data == null) {
+            return state.currentValue();
+        }
+        return state.processRemove(data);
+    }
+
+    @Override
+    public Object processRemove(Object[] data, PercentileAttributeState state) {
+        // will not occur
+        return new IllegalStateException("Median cannot process data array, but found " + Arrays.deepToString(data));
+    }
+
+    @Override
+    public Object reset(PercentileAttributeState state) {
+        return state.reset();
+    }
+
+    @Override
+    public Attribute.Type getReturnType() {
+        return Attribute.Type.DOUBLE;
+    }
+
+    /**
+     * Base of the median states. Each state keeps the values of its own group or partition key.
+     */
+    private abstract static class MedianAttributeState extends PercentileAttributeState {
+
+        protected StreamingMedian median = new StreamingMedian();
+
+        @Override public Object reset() {
+            median.clear();
+            return 0.0;
+        }
+
+        @Override public boolean canDestroy() {
+            return median.isEmpty();
+        }
+
+        @Override public Map<String, Object> snapshot() {
+            return Collections.singletonMap(MEDIAN, median);
+        }
+
+        @Override public void restore(Map<String, Object> map) {
+            median = (StreamingMedian) map.get(MEDIAN);
+        }
+    }
+
+    /**
+     * Median state for values stored as sortable double keys.
+     */
+    private abstract static class DecimalMedianAttributeState extends MedianAttributeState {
+
+        @Override public Object currentValue() {
+            if (median.isEmpty()) {
+                return 0.0;
+            }
+            return (fromSortableLong(median.lowerMedian()) + fromSortableLong(median.upperMedian())) / 2;
+        }
+    }
+
+    /**
+     * Median state for int and long values stored as they are.
+     */
+    private abstract static class IntegralMedianAttributeState extends MedianAttributeState {
+
+        @Override public Object currentValue() {
+            if (median.isEmpty()) {
+                return 0.0;
+            }
+            return ((double) median.lowerMedian() + (double) median.upperMedian()) / 2;
+        }
+    }
+
+    private static class DoubleMedianAttributeState extends DecimalMedianAttributeState {
+
+        @Override public Object processAdd(Object data) {
+            median.add(toSortableLong((Double) data));
+            return currentValue();
+        }
+
+        @Override public Object processRemove(Object obj) {
+            median.remove(toSortableLong((Double) obj));
+            return currentValue();
+        }
+    }
+
+    private static class FloatMedianAttributeState extends DecimalMedianAttributeState {
+
+        @Override public Object processAdd(Object data) {
+            median.add(toSortableLong((Float) data));
+            return currentValue();
+        }
+
+        @Override public Object processRemove(Object obj) {
+            median.remove(toSortableLong((Float) obj));
+            return currentValue();
+        }
+    }
+
+    private static class IntMedianAttributeState extends IntegralMedianAttributeState {
+
+        @Override public Object processAdd(Object data) {
+            median.add((Integer) data);
+            return currentValue();
+        }
+
+        @Override public Object processRemove(Object obj) {
+            median.remove((Integer) obj);
+            return currentValue();
+        }
+    }
+
+    private static class LongMedianAttributeState extends IntegralMedianAttributeState {
+
+        @Override public Object processAdd(Object data) {
+            median.add((Long) data);
+            return currentValue();
+        }
+
+        @Override public Object processRemove(Object obj) {
+            median.remove((Long) obj);
+            return currentValue();
+        }
+    }
+}
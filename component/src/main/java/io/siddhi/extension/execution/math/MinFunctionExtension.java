@@ -26,15 +26,13 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
-import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
-
 /**
  * min(a,b);
  * Returns the minimum of 'a' and 'b'.
@@ -75,7 +73,7 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                         "the function compares them and directs the smaller value of the two to the output stream, " +
                         "OutMediationStream. For example, min(123.67d, 91) returns 91.")
 )
-public class MinFunctionExtension extends FunctionExecutor {
+public class MinFunctionExtension extends NumericFunctionExecutor {
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
                                    SiddhiQueryContext siddhiQueryContext) {
@@ -103,13 +101,13 @@ public class MinFunctionExtension extends FunctionExecutor {
                     " or " + Attribute.Type.FLOAT + " or " + Attribute.Type.DOUBLE +
                     ", but found " + attributeType.toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
     protected Object execute(Object[] data, State state) {
         if (data[0] != null && data[1] != null) {
-            return Math.min(convertToDouble(data[0]), convertToDouble(data[1]));
+            return Math.min(toDouble(data[0], 0), toDouble(data[1], 1));
         }
         return null;
     }
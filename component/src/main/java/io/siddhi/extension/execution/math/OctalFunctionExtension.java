@@ -26,10 +26,10 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.MathFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
@@ -66,7 +66,7 @@ import io.siddhi.query.api.exception.SiddhiAppValidationException;
                 "octal value corresponding to the same and directs it to the output stream, OutMediationStream. " +
                 "For example, oct(99l) returns \"143\".")
 )
-public class OctalFunctionExtension extends FunctionExecutor {
+public class OctalFunctionExtension extends MathFunctionExecutor {
 
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
@@ -82,7 +82,7 @@ public class OctalFunctionExtension extends FunctionExecutor {
                     "function, required " + Attribute.Type.INT + " or " + Attribute.Type.LONG + ", but found " +
                     attributeType.toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
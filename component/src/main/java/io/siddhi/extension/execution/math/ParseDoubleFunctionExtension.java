@@ -23,13 +23,15 @@ import io.siddhi.annotation.Extension;
 import io.siddhi.annotation.Parameter;
 import io.siddhi.annotation.ParameterOverload;
 import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.SystemParameter;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.MathFunctionExecutor;
+import io.siddhi.extension.execution.math.util.NumberParser;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
@@ -48,10 +50,26 @@ import io.siddhi.query.api.exception.SiddhiAppValidationException;
                         name = "p1",
                         description = "The value that should be converted into a double value.",
                         type = {DataType.STRING},
-                        dynamic = true)
+                        dynamic = true),
+                @Parameter(
+                        name = "on.error",
+                        description = "What to do when the value is not a valid double: `throw` an exception, " +
+                                "or return `null` or `nan` without raising one.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "the `on.error` system parameter")
         },
         parameterOverloads = {
-                @ParameterOverload(parameterNames = {"p1"})
+                @ParameterOverload(parameterNames = {"p1"}),
+                @ParameterOverload(parameterNames = {"p1", "on.error"})
+        },
+        systemParameter = {
+                @SystemParameter(
+                        name = "on.error",
+                        description = "What to do when the value is not a valid double and the query does not " +
+                                "give an on.error argument.",
+                        defaultValue = "throw",
+                        possibleParameters = {"throw", "null", "nan"})
         },
         returnAttributes = @ReturnAttribute(
                 description = "The double value of the input parameter.",
@@ -66,14 +84,14 @@ import io.siddhi.query.api.exception.SiddhiAppValidationException;
                         "this function converts it into the corresponding double value and directs it to the " +
                         "output stream, OutMediationStream. For example, parseDouble(\"123\") returns 123.0.")
 )
-public class ParseDoubleFunctionExtension extends FunctionExecutor {
+public class ParseDoubleFunctionExtension extends MathFunctionExecutor {
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
                                 SiddhiQueryContext siddhiQueryContext) {
-        if (attributeExpressionExecutors.length != 1) {
+        if (attributeExpressionExecutors.length < 1 || attributeExpressionExecutors.length > 2) {
             throw new SiddhiAppValidationException("Invalid no of arguments passed to math:parseDouble() " +
                     "function, " +
-                    "required 1, but found " + attributeExpressionExecutors.length);
+                    "required 1 or 2, but found " + attributeExpressionExecutors.length);
         }
         if (attributeExpressionExecutors[0].getReturnType() != Attribute.Type.STRING) {
             throw new SiddhiAppValidationException("Invalid parameter type found for the argument of " +
@@ -81,18 +99,22 @@ public class ParseDoubleFunctionExtension extends FunctionExecutor {
                     "required " + Attribute.Type.STRING + " but found " +
                     attributeExpressionExecutors[0].getReturnType().toString());
         }
-        return null;
+        initOnError(configReader, 1, "math:parseDouble()");
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
     protected Object execute(Object[] data, State state) {
-        return null;    // This method won't get called. Hence, unimplemented.
+        return execute(data[0], state);
     }
 
     @Override
     protected Object execute(Object data, State state) {
         if (data != null) {
-            return Double.parseDouble((String) data);
+            if (throwsOnError() || NumberParser.isDecimal((String) data)) {
+                return NumberParser.parseDouble((String) data);
+            }
+            return invalidInput();
         }
         return null;
     }
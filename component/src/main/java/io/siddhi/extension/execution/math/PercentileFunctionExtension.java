@@ -23,38 +23,68 @@ import io.siddhi.annotation.Extension;
 import io.siddhi.annotation.Parameter;
 import io.siddhi.annotation.ParameterOverload;
 import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.SystemParameter;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.exception.OperationNotSupportedException;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
 import io.siddhi.core.executor.ConstantExpressionExecutor;
 import io.siddhi.core.executor.ExpressionExecutor;
 import io.siddhi.core.query.processor.ProcessingMode;
 import io.siddhi.core.query.selector.attribute.aggregator.AttributeAggregatorExecutor;
 import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.snapshot.state.SnapshotStateList;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.FrequencyTable;
+import io.siddhi.extension.execution.math.util.GKSketch;
+import io.siddhi.extension.execution.math.util.HdrHistogram;
+import io.siddhi.extension.execution.math.util.InlineOrderStatistics;
+import io.siddhi.extension.execution.math.util.OffHeapSortedList;
+import io.siddhi.extension.execution.math.util.OrderStatistics;
+import io.siddhi.extension.execution.math.util.P2QuantileEstimator;
 import io.siddhi.extension.execution.math.util.PercentileAttributeState;
+import io.siddhi.extension.execution.math.util.SelectionBuffer;
+import io.siddhi.extension.execution.math.util.SnapshotableOrderStatistics;
+import io.siddhi.extension.execution.math.util.TDigest;
 import io.siddhi.query.api.definition.Attribute;
 
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
+import static io.siddhi.extension.execution.math.util.MathUtil.fromSortableLong;
+import static io.siddhi.extension.execution.math.util.MathUtil.toSortableLong;
+
 /**
  * AttributeAggregator which implements the following function.
  * <code>percentile(value, p)</code>
+ * <code>percentile(value, p, algorithm)</code>
+ * <code>percentile(value, p, algorithm, algorithmParameter)</code>
+ * <code>percentile(value, p, algorithm, algorithmParameter, includeErrorBound)</code>
  * Returns an estimate for the pth percentile of the stored values.
- * Accept Type(s): value: FLOAT,INT,LONG,DOUBLE / p: DOUBLE
- * Return Type: DOUBLE
+ * Accept Type(s): value: FLOAT,INT,LONG,DOUBLE / p: DOUBLE / algorithm: STRING /
+ * algorithmParameter: INT,LONG,FLOAT,DOUBLE,STRING / includeErrorBound: BOOL
+ * Return Type: DOUBLE, or OBJECT holding double[]{percentile, errorBound} when includeErrorBound is true
  */
 @Extension(
         name = "percentile",
         namespace = "math",
-        description = "This functions returns the pth percentile value of a given argument.",
+        description = "This functions returns the pth percentile value of a given argument. By default all the " +
+                "values are kept and the percentile is exact. The 't-digest' algorithm can be selected instead to " +
+                "estimate the percentile using a fixed amount of memory, and for 'int' and 'long' values an HDR " +
+                "histogram can be used to get percentiles accurate to a given number of significant digits. Where a " +
+                "worst-case guarantee is needed, the Greenwald-Khanna sketch returns a value whose rank is within " +
+                "a configured fraction of the number of values while using memory that grows logarithmically. " +
+                "When window sizes are not known in advance, the 'auto' algorithm stays exact up to a limit on " +
+                "the number of values held and then switches to a t-digest.",
         parameters = {
                 @Parameter(
                         name = "arg",
-                        description = "The value of the parameter whose percentile should be found.",
+                        description = "The value of the parameter whose percentile should be found. The exact " +
+                                "algorithms keep 'int' and 'long' values as 64-bit integers, so large values " +
+                                "such as nanosecond timestamps are ordered exactly and only the result is " +
+                                "converted to 'double'.",
                         type = {DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE},
                         dynamic = true),
                 @Parameter(
@@ -62,38 +92,209 @@ import java.util.Map;
                         description = "Estimate of the percentile to be found (pth percentile) " +
                                 "where p is any number greater than 0 or lesser than or equal to 100.",
                         type = {DataType.DOUBLE},
-                        dynamic = true)
+                        dynamic = true),
+                @Parameter(
+                        name = "algorithm",
+                        description = "The algorithm used to compute the percentile. Supported values are " +
+                                "`exact`, which keeps every value of the window in sorted order, `lazy`, " +
+                                "which gives the same results as `exact` but splits the values in two heaps at " +
+                                "the rank of the percentile, so that each event costs O(log n) with less work " +
+                                "than keeping every value sorted, `frequency`, which " +
+                                "also gives exact results but keeps each distinct value once with its count and " +
+                                "therefore suits data with few distinct values, `offheap`, which also gives " +
+                                "exact results but keeps the sorted values in direct memory outside the Java " +
+                                "heap so that windows of tens of millions of values do not slow down garbage " +
+                                "collection, `tdigest`, which summarises the values in a t-digest sketch of " +
+                                "fixed size, `hdr`, which counts non-negative 'int' or 'long' values in an HDR " +
+                                "histogram, `gk`, which keeps a Greenwald-Khanna quantile summary, `p2`, which " +
+                                "estimates the percentile with the five markers of the P-square algorithm in " +
+                                "about 300 bytes per group whatever the number of values, and " +
+                                "`auto`, which works as `exact` until the number of values held passes a limit " +
+                                "and then moves them into a t-digest with a compression factor of 100. An " +
+                                "`auto` state stays approximate until it " +
+                                "is reset, for example at the end of a batch. When not given, the algorithm set " +
+                                "through the `algorithm` system parameter is used. The `hdr` algorithm " +
+                                "returns the highest value equivalent to the value at the nearest rank and " +
+                                "removes expired values exactly. A t-digest cannot forget " +
+                                "individual values, hence when an event expires from the window one unit of " +
+                                "weight is removed from the centroid closest to its value, which keeps the " +
+                                "result approximate for sliding windows. A Greenwald-Khanna summary cannot " +
+                                "forget values either, so `gk` ignores expired events and its error bound " +
+                                "applies to all the values received since the last reset, which suits batch " +
+                                "windows and queries without a window. The same holds for `p2`: each value " +
+                                "moves its markers in a way that cannot be undone, so expired events are " +
+                                "ignored and over a sliding window the estimate drifts towards the percentile " +
+                                "of every value received since the last reset. Its memory is four arrays of " +
+                                "five entries, holding the marker heights, which also buffer the first five " +
+                                "values, the marker positions, their desired positions and the increments of " +
+                                "those positions, with no sorted copy of the values to fall back on. It has no " +
+                                "error bound, hence it suits unbounded per key percentiles and batch windows " +
+                                "where memory matters more than accuracy.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "exact"),
+                @Parameter(
+                        name = "algorithm.parameter",
+                        description = "The tuning parameter of the selected algorithm. For `tdigest` this is the " +
+                                "compression factor, between 10 and 10000. Higher values use more memory " +
+                                "and give more accurate results. For `hdr` this is the number of significant " +
+                                "decimal digits preserved, between 1 and 5. For `gk` this is the maximum rank " +
+                                "error epsilon as a fraction of the number of values, greater than 0 and less " +
+                                "than 1. For `auto` this is the number of values held exactly per group before " +
+                                "switching to a t-digest, at least 1. For `exact`, `lazy`, " +
+                                "`frequency` and `offheap` a string selects the interpolation method used when " +
+                                "the percentile falls between two values: `nearest.rank`, the smallest value " +
+                                "whose rank is at least p percent of the values, `linear`, the linear " +
+                                "interpolation of the two values also known as R-7, `lower` or `higher`, one of " +
+                                "the two values, `midpoint`, their mean, or `default`, the rule described for " +
+                                "the function.",
+                        type = {DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE, DataType.STRING},
+                        optional = true,
+                        defaultValue = "100.0 for tdigest, 3 for hdr, the `gk.epsilon` system parameter for gk, the " +
+                                "`auto.exact.limit` system parameter for auto"),
+                @Parameter(
+                        name = "include.error.bound",
+                        description = "If true, the function returns a 'double' array holding the percentile " +
+                                "followed by the error bound guaranteed by the algorithm. The bound is 0 for " +
+                                "`exact`, `lazy`, `frequency` and `offheap`, 0 for `auto` while it is exact " +
+                                "and NaN once it has switched to a t-digest, the rank error as a fraction of " +
+                                "the number of values for `gk`, the relative error of the value for `hdr`, and " +
+                                "NaN for `tdigest` and `p2` as they give no guarantee.",
+                        type = {DataType.BOOL},
+                        optional = true,
+                        defaultValue = "false")
         },
         parameterOverloads = {
-                @ParameterOverload(parameterNames = {"arg", "p"})
+                @ParameterOverload(parameterNames = {"arg", "p"}),
+                @ParameterOverload(parameterNames = {"arg", "p", "include.error.bound"}),
+                @ParameterOverload(parameterNames = {"arg", "p", "algorithm"}),
+                @ParameterOverload(parameterNames = {"arg", "p", "algorithm", "include.error.bound"}),
+                @ParameterOverload(parameterNames = {"arg", "p", "algorithm", "algorithm.parameter"}),
+                @ParameterOverload(parameterNames = {"arg", "p", "algorithm", "algorithm.parameter",
+                        "include.error.bound"})
+        },
+        systemParameter = {
+                @SystemParameter(
+                        name = "algorithm",
+                        description = "The algorithm used when a query does not specify one.",
+                        defaultValue = "exact",
+                        possibleParameters = {"exact", "lazy", "frequency", "offheap", "tdigest", "hdr", "gk",
+                                "p2", "auto"}),
+                @SystemParameter(
+                        name = "gk.epsilon",
+                        description = "The rank error of the `gk` algorithm used when a query does not " +
+                                "specify one.",
+                        defaultValue = "0.001",
+                        possibleParameters = "Any number greater than 0 and less than 1"),
+                @SystemParameter(
+                        name = "auto.exact.limit",
+                        description = "The number of values the `auto` algorithm holds exactly per group before " +
+                                "switching to a t-digest, when a query does not specify one. Each value held " +
+                                "exactly takes about 24 bytes.",
+                        defaultValue = "100000",
+                        possibleParameters = "Any integer greater than 0"),
+                @SystemParameter(
+                        name = "interpolation",
+                        description = "The interpolation method of the exact algorithms, and of `auto` while it " +
+                                "is exact, used when a query does not specify one.",
+                        defaultValue = "default",
+                        possibleParameters = {"default", "nearest.rank", "linear", "lower", "higher", "midpoint"})
         },
         returnAttributes = @ReturnAttribute(
-                description = "Estimate of the 'p'th percentile value of the 'arg' values.",
-                type = {DataType.DOUBLE}),
-        examples = @Example(
-
-                syntax = "define stream InValueStream (sensorId int, temperature double); \n" +
-                        "from InValueStream \n" +
-                        "select math:percentile(temperature, 97.0) as percentile \n" +
-                        "insert into OutMediationStream;",
-                description = "This function returns the percentile value based on the argument given." +
-                        " For example, math:percentile(temperature, 97.0) returns the 97th percentile " +
-                        "value of all the temperature events."
-        )
+                description = "Estimate of the 'p'th percentile value of the 'arg' values, or an array " +
+                        "holding the estimate and its error bound when `include.error.bound` is true.",
+                type = {DataType.DOUBLE, DataType.OBJECT}),
+        examples = {
+                @Example(
+                        syntax = "define stream InValueStream (sensorId int, temperature double); \n" +
+                                "from InValueStream \n" +
+                                "select math:percentile(temperature, 97.0) as percentile \n" +
+                                "insert into OutMediationStream;",
+                        description = "This function returns the percentile value based on the argument given." +
+                                " For example, math:percentile(temperature, 97.0) returns the 97th percentile " +
+                                "value of all the temperature events."
+                ),
+                @Example(
+                        syntax = "define stream InValueStream (sensorId int, latency double); \n" +
+                                "from InValueStream \n" +
+                                "select math:percentile(latency, 99.0, 'tdigest', 100.0) as percentile \n" +
+                                "insert into OutMediationStream;",
+                        description = "This function estimates the 99th percentile of all the latency events " +
+                                "using a t-digest with a compression factor of 100, hence the memory used does " +
+                                "not grow with the number of events."
+                ),
+                @Example(
+                        syntax = "define stream InValueStream (sensorId int, latencyInMicros long); \n" +
+                                "from InValueStream#window.time(1 min) \n" +
+                                "select math:percentile(latencyInMicros, 99.9, 'hdr', 3) as percentile \n" +
+                                "insert into OutMediationStream;",
+                        description = "This function returns the 99.9th percentile of the latencies of the last " +
+                                "minute with three significant digits of precision, using an HDR histogram."
+                ),
+                @Example(
+                        syntax = "define stream InValueStream (sensorId int, temperature double); \n" +
+                                "from InValueStream#window.lengthBatch(10000) \n" +
+                                "select math:percentile(temperature, 95.0, 'lazy') as percentile \n" +
+                                "insert into OutMediationStream;",
+                        description = "This function returns the exact 95th percentile of each batch of 10000 " +
+                                "temperature events, reading it after every event in O(log n) without " +
+                                "keeping the values of the batch sorted."
+                ),
+                @Example(
+                        syntax = "define stream InValueStream (sensorId int, latency double); \n" +
+                                "from InValueStream#window.timeBatch(1 hour) \n" +
+                                "select math:percentile(latency, 99.0, 'gk', 0.001, true) as percentile \n" +
+                                "insert into OutMediationStream;",
+                        description = "This function returns an array holding the 99th percentile of the hourly " +
+                                "latencies and the bound 0.001, meaning that the rank of the value returned " +
+                                "differs from the rank of the true 99th percentile by at most 0.1% of the events."
+                ),
+                @Example(
+                        syntax = "define stream InValueStream (tenantId string, latency double); \n" +
+                                "from InValueStream#window.time(1 hour) \n" +
+                                "select tenantId, \n" +
+                                "       math:percentile(latency, 99.0, 'auto', 50000, true) as percentile \n" +
+                                "group by tenantId \n" +
+                                "insert into OutMediationStream;",
+                        description = "This function returns the 99th percentile of the latencies of each tenant " +
+                                "in the last hour together with its error bound. The percentile is exact, with a " +
+                                "bound of 0, while a tenant has at most 50000 events in the window. Beyond that " +
+                                "it is estimated with a t-digest and the bound becomes NaN."
+                )
+        }
 )
 public class PercentileFunctionExtension extends AttributeAggregatorExecutor<PercentileAttributeState> {
 
-    private static final String VALUES_LIST = "VALUES_LIST";
-    private PercentileAttributeState percentileAttributeState;
+    private static final String VALUES_TREE = "VALUES_TREE";
+    private static final String DIGEST = "DIGEST";
+    private static final String ALGORITHM_EXACT = "exact";
+    private static final String ALGORITHM_LAZY = "lazy";
+    private static final String ALGORITHM_FREQUENCY = "frequency";
+    private static final String VALUES = "VALUES";
+    private static final String ALGORITHM_OFFHEAP = "offheap";
+    private static final String ALGORITHM_TDIGEST = "tdigest";
+    private static final String ALGORITHM_HDR = "hdr";
+    private static final double DEFAULT_TDIGEST_COMPRESSION = 100;
+    private static final int DEFAULT_HDR_SIGNIFICANT_DIGITS = 3;
+    private static final String HISTOGRAM = "HISTOGRAM";
+    private static final String SKETCH = "SKETCH";
+    private static final String ALGORITHM_GK = "gk";
+    private static final String DEFAULT_GK_EPSILON = "0.001";
+    private static final String ALGORITHM_AUTO = "auto";
+    private static final String ALGORITHM_P2 = "p2";
+    private static final String ESTIMATOR = "ESTIMATOR";
+    private static final String DEFAULT_AUTO_EXACT_LIMIT = "100000";
     private double percentileValue;
-    private List<Double> valuesList;
+    private boolean includeErrorBound;
+    private boolean integralKeys;
+    private Interpolation interpolation;
 
     @Override
     protected StateFactory<PercentileAttributeState> init(ExpressionExecutor[] expressionExecutors,
                                                           ProcessingMode processingMode, boolean b,
                                 ConfigReader configReader, SiddhiQueryContext siddhiQueryContext) {
-        if (attributeExpressionExecutors.length != 2) {
-            throw new OperationNotSupportedException("Percentile function has to have exactly 2 parameter, currently "
+        if (attributeExpressionExecutors.length < 2 || attributeExpressionExecutors.length > 5) {
+            throw new OperationNotSupportedException("Percentile function has to have 2 to 5 parameters, currently "
                                                              + attributeExpressionExecutors.length +
                                                              " parameters provided.");
         }
@@ -114,9 +315,135 @@ public class PercentileFunctionExtension extends AttributeAggregatorExecutor<Per
             throw new OperationNotSupportedException(
                     "Percentile value should be in 0 < p <= 100 range. But found " + percentileValue);
         }
-        valuesList = new ArrayList<>();
         Attribute.Type attributeType = attributeExpressionExecutors[0].getReturnType();
+        integralKeys = attributeType == Attribute.Type.INT || attributeType == Attribute.Type.LONG;
+        int parameterCount = attributeExpressionExecutors.length;
+        if (parameterCount > 2
+                && attributeExpressionExecutors[parameterCount - 1].getReturnType() == Attribute.Type.BOOL) {
+            if (!(attributeExpressionExecutors[parameterCount - 1] instanceof ConstantExpressionExecutor)) {
+                throw new OperationNotSupportedException("Percentile include.error.bound has to be a constant.");
+            }
+            includeErrorBound = (Boolean) attributeExpressionExecutors[parameterCount - 1].execute(null);
+            parameterCount--;
+        }
+        String algorithm = configReader.readConfig("algorithm", ALGORITHM_EXACT).trim().toLowerCase(Locale.ENGLISH);
+        if (parameterCount > 2) {
+            if (!(attributeExpressionExecutors[2] instanceof ConstantExpressionExecutor)
+                    || attributeExpressionExecutors[2].getReturnType() != Attribute.Type.STRING) {
+                throw new OperationNotSupportedException("Percentile algorithm has to be a constant string.");
+            }
+            algorithm = ((String) attributeExpressionExecutors[2].execute(null)).trim().toLowerCase(Locale.ENGLISH);
+        }
+
+        ExpressionExecutor algorithmParameterExecutor = parameterCount > 3 ? attributeExpressionExecutors[3] : null;
+        interpolation = Interpolation.of(configReader.readConfig("interpolation", Interpolation.DEFAULT.name));
+        if (algorithmParameterExecutor != null && algorithmParameterExecutor.getReturnType() == Attribute.Type.STRING) {
+            if (!(algorithm.equals(ALGORITHM_EXACT) || algorithm.equals(ALGORITHM_LAZY)
+                    || algorithm.equals(ALGORITHM_FREQUENCY) || algorithm.equals(ALGORITHM_OFFHEAP))) {
+                throw new OperationNotSupportedException("Percentile algorithm '" + algorithm
+                                                                 + "' does not accept an interpolation method.");
+            }
+            if (!(algorithmParameterExecutor instanceof ConstantExpressionExecutor)) {
+                throw new OperationNotSupportedException("Percentile interpolation method has to be a constant.");
+            }
+            interpolation = Interpolation.of((String) algorithmParameterExecutor.execute(null));
+            algorithmParameterExecutor = null;
+        }
+        switch (algorithm) {
+            case ALGORITHM_EXACT:
+                if (algorithmParameterExecutor != null) {
+                    throw new OperationNotSupportedException("Percentile algorithm '" + ALGORITHM_EXACT
+                                                                     + "' only accepts an interpolation method "
+                                                                     + "as a parameter.");
+                }
+                return createExactStateFactory(attributeType);
+            case ALGORITHM_LAZY:
+                validateNumericType(attributeType);
+                if (algorithmParameterExecutor != null) {
+                    throw new OperationNotSupportedException("Percentile algorithm '" + ALGORITHM_LAZY
+                                                                     + "' only accepts an interpolation method "
+                                                                     + "as a parameter.");
+                }
+                return () -> new RankedPercentileAttributeState(new SelectionBuffer());
+            case ALGORITHM_FREQUENCY:
+                validateNumericType(attributeType);
+                if (algorithmParameterExecutor != null) {
+                    throw new OperationNotSupportedException("Percentile algorithm '" + ALGORITHM_FREQUENCY
+                                                                     + "' only accepts an interpolation method "
+                                                                     + "as a parameter.");
+                }
+                return () -> new RankedPercentileAttributeState(new FrequencyTable());
+            case ALGORITHM_OFFHEAP:
+                validateNumericType(attributeType);
+                if (algorithmParameterExecutor != null) {
+                    throw new OperationNotSupportedException("Percentile algorithm '" + ALGORITHM_OFFHEAP
+                                                                     + "' only accepts an interpolation method "
+                                                                     + "as a parameter.");
+                }
+                return () -> new RankedPercentileAttributeState(new OffHeapSortedList());
+            case ALGORITHM_TDIGEST:
+                validateNumericType(attributeType);
+                double compression = getAlgorithmParameter(algorithmParameterExecutor,
+                        DEFAULT_TDIGEST_COMPRESSION);
+                if (!(compression >= TDigest.MIN_COMPRESSION && compression <= TDigest.MAX_COMPRESSION)) {
+                    throw new OperationNotSupportedException(
+                            "The t-digest compression should be between " + TDigest.MIN_COMPRESSION + " and " +
+                            TDigest.MAX_COMPRESSION + ". But found " + compression);
+                }
+                return () -> new TDigestPercentileAttributeState(compression);
+            case ALGORITHM_HDR:
+                if (attributeType != Attribute.Type.INT && attributeType != Attribute.Type.LONG) {
+                    throw new OperationNotSupportedException("Percentile algorithm '" + ALGORITHM_HDR
+                                                                     + "' supports only INT and LONG values. But found "
+                                                                     + attributeType);
+                }
+                double significantDigits = getAlgorithmParameter(algorithmParameterExecutor,
+                        DEFAULT_HDR_SIGNIFICANT_DIGITS);
+                if (significantDigits % 1 != 0 || significantDigits < 1 || significantDigits > 5) {
+                    throw new OperationNotSupportedException("The HDR histogram significant digits should be an "
+                                                                     + "integer between 1 and 5. But found "
+                                                                     + significantDigits);
+                }
+                return () -> new HdrPercentileAttributeState((int) significantDigits);
+            case ALGORITHM_GK:
+                validateNumericType(attributeType);
+                double epsilon = getAlgorithmParameter(algorithmParameterExecutor,
+                        Double.parseDouble(configReader.readConfig("gk.epsilon", DEFAULT_GK_EPSILON)));
+                if (epsilon <= 0 || epsilon >= 1) {
+                    throw new OperationNotSupportedException(
+                            "The Greenwald-Khanna epsilon should be in 0 < epsilon < 1 range. But found " + epsilon);
+                }
+                return () -> new GKPercentileAttributeState(epsilon);
+            case ALGORITHM_P2:
+                validateNumericType(attributeType);
+                if (algorithmParameterExecutor != null) {
+                    throw new OperationNotSupportedException("Percentile algorithm '" + ALGORITHM_P2
+                                                                     + "' does not accept a parameter.");
+                }
+                return () -> new P2PercentileAttributeState();
+            case ALGORITHM_AUTO:
+                validateNumericType(attributeType);
+                double exactLimit = getAlgorithmParameter(algorithmParameterExecutor,
+                        Double.parseDouble(configReader.readConfig("auto.exact.limit", DEFAULT_AUTO_EXACT_LIMIT)));
+                if (exactLimit % 1 != 0 || exactLimit < 1 || exactLimit > Integer.MAX_VALUE) {
+                    throw new OperationNotSupportedException("The auto exact limit should be a positive integer. "
+                                                                     + "But found " + exactLimit);
+                }
+                return () -> new AutoPercentileAttributeState((int) exactLimit);
+            default:
+                throw new OperationNotSupportedException("Percentile algorithm should be one of '" + ALGORITHM_EXACT
+                                                                 + "', '" + ALGORITHM_LAZY + "', '"
+                                                                 + ALGORITHM_FREQUENCY + "', '"
+                                                                 + ALGORITHM_OFFHEAP + "', '"
+                                                                 + ALGORITHM_TDIGEST + "', '"
+                                                                 + ALGORITHM_HDR + "', '" + ALGORITHM_GK
+                                                                 + "', '" + ALGORITHM_P2
+                                                                 + "' or '" + ALGORITHM_AUTO + "'. But found '"
+                                                                 + algorithm + "'.");
+        }
+    }
 
+    private StateFactory<PercentileAttributeState> createExactStateFactory(Attribute.Type attributeType) {
         // This approach is used to avoid per event type check as it has a negative performance impact.
         return () -> {
             switch (attributeType) {
@@ -134,6 +461,28 @@ public class PercentileFunctionExtension extends AttributeAggregatorExecutor<Per
         };
     }
 
+    private void validateNumericType(Attribute.Type attributeType) {
+        if (attributeType != Attribute.Type.INT && attributeType != Attribute.Type.LONG
+                && attributeType != Attribute.Type.FLOAT && attributeType != Attribute.Type.DOUBLE) {
+            throw new OperationNotSupportedException("Percentile not supported for " + attributeType);
+        }
+    }
+
+    private double getAlgorithmParameter(ExpressionExecutor executor, double defaultValue) {
+        if (executor == null) {
+            return defaultValue;
+        }
+        if (!(executor instanceof ConstantExpressionExecutor)) {
+            throw new OperationNotSupportedException("Percentile algorithm parameter has to be a constant.");
+        }
+        Object parameter = executor.execute(null);
+        if (!(parameter instanceof Number)) {
+            throw new OperationNotSupportedException("Percentile algorithm parameter should be numeric. But found "
+                                                             + executor.getReturnType());
+        }
+        return ((Number) parameter).doubleValue();
+    }
+
     @Override
     public Object processAdd(Object data, PercentileAttributeState state) {
         // will not occur
@@ -142,9 +491,9 @@ public class PercentileFunctionExtension extends AttributeAggregatorExecutor<Per
 
     @Override public Object processAdd(Object[] data, PercentileAttributeState state) {
         if (data == null) {
-            return state.currentValue();
+            return result(state.currentValue(), state);
         }
-        return state.processAdd(data[0]);
+        return result(state.processAdd(data[0]), state);
 
     }
 
@@ -155,13 +504,20 @@ public class PercentileFunctionExtension extends AttributeAggregatorExecutor<Per
 
     @Override public Object processRemove(Object[] data, PercentileAttributeState state) {
         if (data == null) {
-            return state.currentValue();
+            return result(state.currentValue(), state);
         }
-        return state.processRemove(data[0]);
+        return result(state.processRemove(data[0]), state);
     }
 
     @Override public Object reset(PercentileAttributeState state) {
-        return state.reset();
+        return result(state.reset(), state);
+    }
+
+    private Object result(Object percentile, PercentileAttributeState state) {
+        if (includeErrorBound) {
+            return new double[]{(Double) percentile, state.errorBound()};
+        }
+        return percentile;
     }
 
     /**
@@ -179,208 +535,525 @@ public class PercentileFunctionExtension extends AttributeAggregatorExecutor<Per
      * The pth percentile is the average of that corresponding value in your data set and the value that directly
      * follows it.
      *
-     * @param valuesList values list
+     * @param valuesTree values indexed by rank
      * @param percentile percentile (p)
+     * @param integralKeys whether the keys are int or long values rather than encoded doubles
      * @return pth percentile value
      */
-    private double getPercentileValue(List<Double> valuesList, double percentile) {
+    static double getPercentileValue(OrderStatistics valuesTree, double percentile, boolean integralKeys) {
 
         double percentileIndexTemp;
         int percentileIndex;
 
+        if (valuesTree.isEmpty()) {
+            return 0.0;
+        }
+
         // calculating percentile index
-        percentileIndexTemp = percentile * valuesList.size() / 100;
+        percentileIndexTemp = percentile * valuesTree.size() / 100;
 
         if (percentileIndexTemp % 1 == 0) {
             percentileIndex = (int) percentileIndexTemp;
-            if (percentileIndex == valuesList.size()) {
-                return valuesList.get(percentileIndex - 1);
+            if (percentileIndex == valuesTree.size()) {
+                return toValue(valuesTree.get(percentileIndex - 1), integralKeys);
             } else {
-                return (valuesList.get(percentileIndex - 1) + valuesList.get(percentileIndex)) / 2;
+                return (toValue(valuesTree.get(percentileIndex - 1), integralKeys)
+                        + toValue(valuesTree.get(percentileIndex), integralKeys)) / 2;
             }
         } else {
             percentileIndex = (int) Math.round(percentileIndexTemp);
             if (percentileIndex == 0) {
-                return valuesList.get(percentileIndex);
+                return toValue(valuesTree.get(percentileIndex), integralKeys);
             } else {
-                return valuesList.get(percentileIndex - 1);
+                return toValue(valuesTree.get(percentileIndex - 1), integralKeys);
             }
         }
     }
 
     /**
-     * Adding values to the sorted ArrayList.
+     * Percentile calculation with the given interpolation method. Every method reads at most two ranks of the
+     * ordered values.
      *
-     * @param arrayList sorted ArrayList
-     * @param value     new value
+     * @param valuesTree    values indexed by rank
+     * @param percentile    percentile (p)
+     * @param integralKeys  whether the keys are int or long values rather than encoded doubles
+     * @param interpolation rule used to pick or interpolate the ranks around the percentile
+     * @return pth percentile value
      */
-    private void sortedArrayListAdd(List<Double> arrayList, double value) {
-
-        int insertIndex = Collections.binarySearch(arrayList, value);
-        if (insertIndex < 0) {
-            arrayList.add(-insertIndex - 1, value);
-        } else {
-            arrayList.add(insertIndex + 1, value);
+    static double getPercentileValue(OrderStatistics valuesTree, double percentile, boolean integralKeys,
+                                     Interpolation interpolation) {
+        if (interpolation == Interpolation.DEFAULT || valuesTree.isEmpty()) {
+            return getPercentileValue(valuesTree, percentile, integralKeys);
+        }
+        int size = valuesTree.size();
+        if (interpolation == Interpolation.NEAREST_RANK) {
+            int rank = (int) Math.ceil(percentile * size / 100);
+            return toValue(valuesTree.get(Math.max(rank, 1) - 1), integralKeys);
+        }
+        // zero based fractional rank, as used by R-7 and by the lower, higher and midpoint methods
+        double position = percentile * (size - 1) / 100;
+        int lowerIndex = (int) position;
+        double lower = toValue(valuesTree.get(lowerIndex), integralKeys);
+        if (lowerIndex == position || interpolation == Interpolation.LOWER) {
+            return lower;
+        }
+        double higher = toValue(valuesTree.get(lowerIndex + 1), integralKeys);
+        switch (interpolation) {
+            case HIGHER:
+                return higher;
+            case MIDPOINT:
+                return (lower + higher) / 2;
+            default:
+                return lower + (position - lowerIndex) * (higher - lower);
         }
     }
 
     /**
-     * Removing values from the sorted ArrayList.
-     *
-     * @param arrayList Sorted ArrayList
-     * @param value     expired value
+     * Decodes a stored key. Int and long values are stored as they are, so that values above 2^53 keep their order
+     * and only the final result is rounded to a double.
      */
-    private void sortedArrayListRemove(List<Double> arrayList, double value) {
-        int removeIndex = Collections.binarySearch(arrayList, value);
-        arrayList.remove(removeIndex);
+    private static double toValue(long key, boolean integralKeys) {
+        return integralKeys ? key : fromSortableLong(key);
+    }
+
+    private long toKey(Object data) {
+        return integralKeys ? ((Number) data).longValue() : toSortableLong(((Number) data).doubleValue());
     }
 
     @Override public Attribute.Type getReturnType() {
-        return Attribute.Type.DOUBLE;
+        return includeErrorBound ? Attribute.Type.OBJECT : Attribute.Type.DOUBLE;
     }
 
-    private class DoublePercentileAttributeState extends PercentileAttributeState {
+    /**
+     * Base of the exact percentile states. Each state keeps the values of its own group or partition key.
+     */
+    private abstract class ExactPercentileAttributeState extends PercentileAttributeState {
+
+        protected SnapshotableOrderStatistics valuesTree = new SnapshotableOrderStatistics(new InlineOrderStatistics());
+
+        @Override public Object reset() {
+            valuesTree.clear();
+            return 0.0;
+        }
+
+        @Override public Object currentValue() {
+            return getPercentileValue(valuesTree, percentileValue, integralKeys, interpolation);
+        }
+
+        @Override public boolean canDestroy() {
+            return valuesTree.isEmpty();
+        }
+
+        @Override public Map<String, Object> snapshot() {
+            return Collections.singletonMap(VALUES_TREE, valuesTree.getSnapshot());
+        }
+
+        @Override public void restore(Map<String, Object> map) {
+            valuesTree.restore((SnapshotStateList) map.get(VALUES_TREE));
+        }
+    }
+
+    private class DoublePercentileAttributeState extends ExactPercentileAttributeState {
 
         @Override public Object processAdd(Object data) {
             double value = (Double) data;
-            sortedArrayListAdd(valuesList, value);
-            return getPercentileValue(valuesList, percentileValue);
+            valuesTree.add(toSortableLong(value));
+            return getPercentileValue(valuesTree, percentileValue, integralKeys, interpolation);
         }
 
         @Override public Object processRemove(Object obj) {
             double value = (Double) obj;
-            sortedArrayListRemove(valuesList, value);
-            return getPercentileValue(valuesList, percentileValue);
+            valuesTree.remove(toSortableLong(value));
+            return getPercentileValue(valuesTree, percentileValue, integralKeys, interpolation);
+        }
+    }
+
+    private class FloatPercentileAttributeState extends ExactPercentileAttributeState {
+
+        @Override public Object processAdd(Object data) {
+            double value = (Float) data;
+            valuesTree.add(toSortableLong(value));
+            return getPercentileValue(valuesTree, percentileValue, integralKeys, interpolation);
+        }
+
+        @Override public Object processRemove(Object obj) {
+            double value = (Float) obj;
+            valuesTree.remove(toSortableLong(value));
+            return getPercentileValue(valuesTree, percentileValue, integralKeys, interpolation);
+        }
+    }
+
+    private class IntPercentileAttributeState extends ExactPercentileAttributeState {
+
+        @Override public Object processAdd(Object data) {
+            valuesTree.add((Integer) data);
+            return getPercentileValue(valuesTree, percentileValue, integralKeys, interpolation);
+        }
+
+        @Override public Object processRemove(Object obj) {
+            valuesTree.remove((Integer) obj);
+            return getPercentileValue(valuesTree, percentileValue, integralKeys, interpolation);
+        }
+    }
+
+    private class LongPercentileAttributeState extends ExactPercentileAttributeState {
+
+        @Override public Object processAdd(Object data) {
+            valuesTree.add((Long) data);
+            return getPercentileValue(valuesTree, percentileValue, integralKeys, interpolation);
+        }
+
+        @Override public Object processRemove(Object obj) {
+            valuesTree.remove((Long) obj);
+            return getPercentileValue(valuesTree, percentileValue, integralKeys, interpolation);
+        }
+    }
+
+    /**
+     * Exact state over any {@link OrderStatistics} implementation, used by the `lazy`, `frequency` and `offheap`
+     * algorithms.
+     */
+    private class RankedPercentileAttributeState extends PercentileAttributeState {
+
+        private final SnapshotableOrderStatistics values;
+
+        RankedPercentileAttributeState(OrderStatistics values) {
+            this.values = new SnapshotableOrderStatistics(values);
+        }
+
+        @Override public Object processAdd(Object data) {
+            values.add(toKey(data));
+            return getPercentileValue(values, percentileValue, integralKeys, interpolation);
+        }
+
+        @Override public Object processRemove(Object obj) {
+            values.remove(toKey(obj));
+            return getPercentileValue(values, percentileValue, integralKeys, interpolation);
         }
 
         @Override public Object reset() {
-            valuesList.clear();
+            values.clear();
             return 0.0;
         }
 
         @Override public Object currentValue() {
-            return getPercentileValue(valuesList, percentileValue);
+            return getPercentileValue(values, percentileValue, integralKeys, interpolation);
         }
 
         @Override public boolean canDestroy() {
-            return valuesList.isEmpty();
+            return values.isEmpty();
         }
 
         @Override public Map<String, Object> snapshot() {
-            return Collections.singletonMap(VALUES_LIST, valuesList);
+            return Collections.singletonMap(VALUES, values.getSnapshot());
         }
 
         @Override public void restore(Map<String, Object> map) {
-            valuesList = (List<Double>) map.get(VALUES_LIST);
+            values.restore((SnapshotStateList) map.get(VALUES));
         }
     }
 
-    private class FloatPercentileAttributeState extends PercentileAttributeState {
+    /**
+     * Approximate state which summarises the values in a t-digest of fixed size.
+     */
+    private class TDigestPercentileAttributeState extends PercentileAttributeState {
+
+        private TDigest digest;
+
+        TDigestPercentileAttributeState(double compression) {
+            digest = new TDigest(compression);
+        }
 
         @Override public Object processAdd(Object data) {
-            float value = (Float) data;
-            sortedArrayListAdd(valuesList, value);
-            return getPercentileValue(valuesList, percentileValue);
+            digest.add(((Number) data).doubleValue());
+            return currentValue();
         }
 
         @Override public Object processRemove(Object obj) {
-            double value = (Float) obj;
-            sortedArrayListRemove(valuesList, value);
-            return getPercentileValue(valuesList, percentileValue);
+            digest.remove(((Number) obj).doubleValue());
+            return currentValue();
+        }
+
+        @Override public double errorBound() {
+            return Double.NaN;
+        }
+
+        @Override public Object reset() {
+            digest.clear();
+            return 0.0;
+        }
+
+        @Override public Object currentValue() {
+            if (digest.isEmpty()) {
+                return 0.0;
+            }
+            return digest.quantile(percentileValue / 100);
+        }
+
+        @Override public boolean canDestroy() {
+            return digest.isEmpty();
+        }
+
+        @Override public Map<String, Object> snapshot() {
+            return Collections.singletonMap(DIGEST, digest);
+        }
+
+        @Override public void restore(Map<String, Object> map) {
+            digest = (TDigest) map.get(DIGEST);
+        }
+    }
+
+    /**
+     * State which counts int and long values in an HDR histogram, removals decrement the matching counter.
+     */
+    private class HdrPercentileAttributeState extends PercentileAttributeState {
+
+        private HdrHistogram histogram;
+
+        HdrPercentileAttributeState(int significantDigits) {
+            histogram = new HdrHistogram(significantDigits);
+        }
+
+        @Override public Object processAdd(Object data) {
+            long value = ((Number) data).longValue();
+            if (value < 0) {
+                throw new SiddhiAppRuntimeException("Percentile algorithm '" + ALGORITHM_HDR
+                        + "' supports only non-negative values, but found " + value);
+            }
+            histogram.add(value);
+            return currentValue();
+        }
+
+        @Override public Object processRemove(Object obj) {
+            histogram.remove(((Number) obj).longValue());
+            return currentValue();
+        }
+
+        @Override public double errorBound() {
+            return Math.pow(10, -histogram.getSignificantDigits());
+        }
+
+        @Override public Object reset() {
+            histogram.clear();
+            return 0.0;
+        }
+
+        @Override public Object currentValue() {
+            return (double) histogram.getValueAtPercentile(percentileValue);
+        }
+
+        @Override public boolean canDestroy() {
+            return histogram.isEmpty();
+        }
+
+        @Override public Map<String, Object> snapshot() {
+            return Collections.singletonMap(HISTOGRAM, histogram);
+        }
+
+        @Override public void restore(Map<String, Object> map) {
+            histogram = (HdrHistogram) map.get(HISTOGRAM);
+        }
+    }
+
+    /**
+     * State which keeps a Greenwald-Khanna summary. The summary cannot forget values, hence removals are ignored.
+     */
+    private class GKPercentileAttributeState extends PercentileAttributeState {
+
+        private GKSketch sketch;
+
+        GKPercentileAttributeState(double epsilon) {
+            sketch = new GKSketch(epsilon);
+        }
+
+        @Override public Object processAdd(Object data) {
+            sketch.add(((Number) data).doubleValue());
+            return currentValue();
+        }
+
+        @Override public Object processRemove(Object obj) {
+            return currentValue();
         }
 
         @Override public Object reset() {
-            valuesList.clear();
+            sketch.clear();
             return 0.0;
         }
 
         @Override public Object currentValue() {
-            return getPercentileValue(valuesList, percentileValue);
+            if (sketch.isEmpty()) {
+                return 0.0;
+            }
+            return sketch.quantile(percentileValue / 100);
+        }
+
+        @Override public double errorBound() {
+            return sketch.getEpsilon();
         }
 
         @Override public boolean canDestroy() {
-            return valuesList.isEmpty();
+            return sketch.isEmpty();
         }
 
         @Override public Map<String, Object> snapshot() {
-            return Collections.singletonMap(VALUES_LIST, valuesList);
+            return Collections.singletonMap(SKETCH, sketch);
         }
 
         @Override public void restore(Map<String, Object> map) {
-            valuesList = (List<Double>) map.get(VALUES_LIST);
+            sketch = (GKSketch) map.get(SKETCH);
         }
     }
 
-    private class IntPercentileAttributeState extends PercentileAttributeState {
+    /**
+     * State which estimates the percentile with the P-square algorithm. The estimator stores no values and a marker
+     * update cannot be undone, hence removals are ignored and the estimate of a sliding window drifts.
+     */
+    private class P2PercentileAttributeState extends PercentileAttributeState {
+
+        private P2QuantileEstimator estimator = new P2QuantileEstimator(percentileValue / 100);
 
         @Override public Object processAdd(Object data) {
-            float value = (Integer) data;
-            sortedArrayListAdd(valuesList, value);
-            return getPercentileValue(valuesList, percentileValue);
+            estimator.add(((Number) data).doubleValue());
+            return currentValue();
         }
 
         @Override public Object processRemove(Object obj) {
-            double value = (Integer) obj;
-            sortedArrayListRemove(valuesList, value);
-            return getPercentileValue(valuesList, percentileValue);
+            return currentValue();
         }
 
         @Override public Object reset() {
-            valuesList.clear();
+            estimator.clear();
             return 0.0;
         }
 
         @Override public Object currentValue() {
-            return getPercentileValue(valuesList, percentileValue);
+            if (estimator.isEmpty()) {
+                return 0.0;
+            }
+            return estimator.getQuantile();
+        }
+
+        @Override public double errorBound() {
+            return Double.NaN;
         }
 
         @Override public boolean canDestroy() {
-            return valuesList.isEmpty();
+            return estimator.isEmpty();
         }
 
         @Override public Map<String, Object> snapshot() {
-            return Collections.singletonMap(VALUES_LIST, valuesList);
+            return Collections.singletonMap(ESTIMATOR, estimator);
         }
 
         @Override public void restore(Map<String, Object> map) {
-            valuesList = (List<Double>) map.get(VALUES_LIST);
+            estimator = (P2QuantileEstimator) map.get(ESTIMATOR);
         }
     }
 
-    private class LongPercentileAttributeState extends PercentileAttributeState {
+    /**
+     * State which keeps the values exactly until there are more than a limit of them, and then moves them into a
+     * t-digest which it keeps until reset.
+     */
+    private class AutoPercentileAttributeState extends PercentileAttributeState {
+
+        private final int exactLimit;
+        private InlineOrderStatistics valuesTree = new InlineOrderStatistics();
+        private TDigest digest;
+
+        AutoPercentileAttributeState(int exactLimit) {
+            this.exactLimit = exactLimit;
+        }
 
         @Override public Object processAdd(Object data) {
-            float value = (Long) data;
-            sortedArrayListAdd(valuesList, value);
-            return getPercentileValue(valuesList, percentileValue);
+            if (digest != null) {
+                digest.add(((Number) data).doubleValue());
+            } else {
+                valuesTree.add(toKey(data));
+                if (valuesTree.size() > exactLimit) {
+                    digest = new TDigest(DEFAULT_TDIGEST_COMPRESSION);
+                    for (int i = 0; i < valuesTree.size(); i++) {
+                        digest.add(toValue(valuesTree.get(i), integralKeys));
+                    }
+                    valuesTree = null;
+                }
+            }
+            return currentValue();
         }
 
         @Override public Object processRemove(Object obj) {
-            double value = (Long) obj;
-            sortedArrayListRemove(valuesList, value);
-            return getPercentileValue(valuesList, percentileValue);
+            if (digest != null) {
+                digest.remove(((Number) obj).doubleValue());
+            } else {
+                valuesTree.remove(toKey(obj));
+            }
+            return currentValue();
+        }
+
+        @Override public double errorBound() {
+            return digest != null ? Double.NaN : 0;
         }
 
         @Override public Object reset() {
-            valuesList.clear();
+            if (digest != null) {
+                valuesTree = new InlineOrderStatistics();
+                digest = null;
+            } else {
+                valuesTree.clear();
+            }
             return 0.0;
         }
 
         @Override public Object currentValue() {
-            return getPercentileValue(valuesList, percentileValue);
+            if (digest != null) {
+                return digest.isEmpty() ? 0.0 : digest.quantile(percentileValue / 100);
+            }
+            return getPercentileValue(valuesTree, percentileValue, integralKeys, interpolation);
         }
 
         @Override public boolean canDestroy() {
-            return valuesList.isEmpty();
+            return digest != null ? digest.isEmpty() : valuesTree.isEmpty();
         }
 
         @Override public Map<String, Object> snapshot() {
-            return Collections.singletonMap(VALUES_LIST, valuesList);
+            Map<String, Object> state = new HashMap<>();
+            state.put(VALUES_TREE, valuesTree);
+            state.put(DIGEST, digest);
+            return state;
         }
 
         @Override public void restore(Map<String, Object> map) {
-            valuesList = (List<Double>) map.get(VALUES_LIST);
+            valuesTree = (InlineOrderStatistics) map.get(VALUES_TREE);
+            digest = (TDigest) map.get(DIGEST);
         }
     }
 
+    /**
+     * Rules for reading a percentile that falls between two ranks of the ordered values.
+     */
+    enum Interpolation {
+        DEFAULT("default"),
+        NEAREST_RANK("nearest.rank"),
+        LINEAR("linear"),
+        LOWER("lower"),
+        HIGHER("higher"),
+        MIDPOINT("midpoint");
+
+        private final String name;
+
+        Interpolation(String name) {
+            this.name = name;
+        }
+
+        static Interpolation of(String name) {
+            String method = name.trim().toLowerCase(Locale.ENGLISH);
+            for (Interpolation interpolation : values()) {
+                if (interpolation.name.equals(method)) {
+                    return interpolation;
+                }
+            }
+            throw new OperationNotSupportedException("Percentile interpolation method should be one of 'default', "
+                                                             + "'nearest.rank', 'linear', 'lower', 'higher' or "
+                                                             + "'midpoint'. But found '" + name + "'.");
+        }
+    }
 }
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.math;
+
+import io.siddhi.annotation.Example;
+import io.siddhi.annotation.Extension;
+import io.siddhi.annotation.Parameter;
+import io.siddhi.annotation.ParameterOverload;
+import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.util.DataType;
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.exception.OperationNotSupportedException;
+import io.siddhi.core.executor.ConstantExpressionExecutor;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.query.processor.ProcessingMode;
+import io.siddhi.core.query.selector.attribute.aggregator.AttributeAggregatorExecutor;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.InlineOrderStatistics;
+import io.siddhi.extension.execution.math.util.OrderStatistics;
+import io.siddhi.extension.execution.math.util.PercentileAttributeState;
+import io.siddhi.query.api.definition.Attribute;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static io.siddhi.extension.execution.math.PercentileFunctionExtension.getPercentileValue;
+import static io.siddhi.extension.execution.math.util.MathUtil.toSortableLong;
+
+/**
+ * AttributeAggregator which implements the following function.
+ * <code>percentiles(value, p1, p2, ...)</code>
+ * <code>percentiles(value, p1, p2, ..., delimiter)</code>
+ * Returns the p1th, p2th, ... percentiles of the stored values, computed from a single ordered structure.
+ * Accept Type(s): value: FLOAT,INT,LONG,DOUBLE / p: DOUBLE / delimiter: STRING
+ * Return Type: OBJECT holding a double[], or STRING when a delimiter is given
+ */
+@Extension(
+        name = "percentiles",
+        namespace = "math",
+        description = "This function returns several percentiles of a given argument at once. The values are kept " +
+                "in one ordered structure per group, hence requesting more percentiles does not add more copies " +
+                "of the values. Each percentile is calculated exactly as in `math:percentile`.",
+        parameters = {
+                @Parameter(
+                        name = "arg",
+                        description = "The value of the parameter whose percentiles should be found.",
+                        type = {DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE},
+                        dynamic = true),
+                @Parameter(
+                        name = "p",
+                        description = "The percentiles to be found, each greater than 0 and lesser than or " +
+                                "equal to 100. Any number of percentiles can be given.",
+                        type = {DataType.DOUBLE}),
+                @Parameter(
+                        name = "delimiter",
+                        description = "If given, the percentiles are returned as a string joined with this " +
+                                "delimiter instead of as a 'double' array.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "null")
+        },
+        parameterOverloads = {
+                @ParameterOverload(parameterNames = {"arg", "p", "..."}),
+                @ParameterOverload(parameterNames = {"arg", "p", "...", "delimiter"})
+        },
+        returnAttributes = @ReturnAttribute(
+                description = "The requested percentiles of the 'arg' values in the order they were given, as a " +
+                        "'double' array or as a delimited string.",
+                type = {DataType.OBJECT, DataType.STRING}),
+        examples = {
+                @Example(
+                        syntax = "define stream InValueStream (sensorId int, latency double); \n" +
+                                "from InValueStream#window.time(1 min) \n" +
+                                "select math:percentiles(latency, 50.0, 90.0, 99.0, 99.9) as percentiles \n" +
+                                "insert into OutMediationStream;",
+                        description = "This function returns a 'double' array holding the 50th, 90th, 99th and " +
+                                "99.9th percentiles of the latencies of the last minute."
+                ),
+                @Example(
+                        syntax = "define stream InValueStream (sensorId int, latency double); \n" +
+                                "from InValueStream#window.time(1 min) \n" +
+                                "select math:percentiles(latency, 50.0, 99.0, ',') as percentiles \n" +
+                                "insert into OutMediationStream;",
+                        description = "This function returns the 50th and 99th percentiles of the latencies " +
+                                "of the last minute as a string such as '12.0,48.0'."
+                )
+        }
+)
+public class PercentilesFunctionExtension extends AttributeAggregatorExecutor<PercentileAttributeState> {
+
+    private static final String VALUES_TREE = "VALUES_TREE";
+    private double[] percentileValues;
+    private String delimiter;
+    private boolean integralKeys;
+
+    @Override
+    protected StateFactory<PercentileAttributeState> init(ExpressionExecutor[] expressionExecutors,
+                                                          ProcessingMode processingMode, boolean b,
+                                                          ConfigReader configReader,
+                                                          SiddhiQueryContext siddhiQueryContext) {
+        int percentileCount = attributeExpressionExecutors.length - 1;
+        if (percentileCount > 0
+                && attributeExpressionExecutors[percentileCount].getReturnType() == Attribute.Type.STRING) {
+            if (!(attributeExpressionExecutors[percentileCount] instanceof ConstantExpressionExecutor)) {
+                throw new OperationNotSupportedException("Percentiles delimiter has to be a constant.");
+            }
+            delimiter = (String) attributeExpressionExecutors[percentileCount].execute(null);
+            percentileCount--;
+        }
+        if (percentileCount < 1) {
+            throw new OperationNotSupportedException("Percentiles function has to have at least 2 parameters, " +
+                                                             "currently " + attributeExpressionExecutors.length +
+                                                             " parameters provided.");
+        }
+
+        percentileValues = new double[percentileCount];
+        for (int i = 0; i < percentileCount; i++) {
+            ExpressionExecutor executor = attributeExpressionExecutors[i + 1];
+            if (!(executor instanceof ConstantExpressionExecutor)) {
+                throw new OperationNotSupportedException("Percentile values have to be constants.");
+            }
+            Object percentileValueObject = executor.execute(null);
+            if (!(percentileValueObject instanceof Double)) {
+                throw new OperationNotSupportedException("Percentile values should be of type double. But found "
+                                                                 + executor.getReturnType());
+            }
+            double percentileValue = (Double) percentileValueObject;
+            if (percentileValue <= 0 || percentileValue > 100) {
+                throw new OperationNotSupportedException(
+                        "Percentile values should be in 0 < p <= 100 range. But found " + percentileValue);
+            }
+            percentileValues[i] = percentileValue;
+        }
+
+        Attribute.Type attributeType = attributeExpressionExecutors[0].getReturnType();
+        integralKeys = attributeType == Attribute.Type.INT || attributeType == Attribute.Type.LONG;
+        // This approach is used to avoid per event type check as it has a negative performance impact.
+        return () -> {
+            switch (attributeType) {
+                case FLOAT:
+                    return new FloatPercentilesAttributeState();
+                case INT:
+                    return new IntPercentilesAttributeState();
+                case LONG:
+                    return new LongPercentilesAttributeState();
+                case DOUBLE:
+                    return new DoublePercentilesAttributeState();
+                default:
+                    throw new OperationNotSupportedException("Percentiles not supported for " + attributeType);
+            }
+        };
+    }
+
+    @Override
+    public Object processAdd(Object data, PercentileAttributeState state) {
+        // will not occur
+        return new IllegalStateException("Percentiles need multiple input, but found " + data);
+    }
+
+    @Override public Object processAdd(Object[] data, PercentileAttributeState state) {
+        if (data == null) {
+            return state.currentValue();
+        }
+        return state.processAdd(data[0]);
+    }
+
+    @Override public Object processRemove(Object data, PercentileAttributeState state) {
+        // will not occur
+        return new IllegalStateException("Percentiles need multiple input, but found " + data);
+    }
+
+    @Override public Object processRemove(Object[] data, PercentileAttributeState state) {
+        if (data == null) {
+            return state.currentValue();
+        }
+        return state.processRemove(data[0]);
+    }
+
+    @Override public Object reset(PercentileAttributeState state) {
+        return state.reset();
+    }
+
+    @Override public Attribute.Type getReturnType() {
+        return delimiter == null ? Attribute.Type.OBJECT : Attribute.Type.STRING;
+    }
+
+    private Object getPercentileValues(OrderStatistics valuesTree) {
+        double[] values = new double[percentileValues.length];
+        for (int i = 0; i < percentileValues.length; i++) {
+            values[i] = getPercentileValue(valuesTree, percentileValues[i], integralKeys);
+        }
+        if (delimiter == null) {
+            return values;
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                builder.append(delimiter);
+            }
+            builder.append(values[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Base of the percentiles states. Each state keeps the values of its own group or partition key.
+     */
+    private abstract class PercentilesAttributeState extends PercentileAttributeState {
+
+        protected InlineOrderStatistics valuesTree = new InlineOrderStatistics();
+
+        @Override public Object reset() {
+            valuesTree.clear();
+            return getPercentileValues(valuesTree);
+        }
+
+        @Override public Object currentValue() {
+            return getPercentileValues(valuesTree);
+        }
+
+        @Override public boolean canDestroy() {
+            return valuesTree.isEmpty();
+        }
+
+        @Override public Map<String, Object> snapshot() {
+            return Collections.singletonMap(VALUES_TREE, valuesTree);
+        }
+
+        @Override public void restore(Map<String, Object> map) {
+            valuesTree = (InlineOrderStatistics) map.get(VALUES_TREE);
+        }
+    }
+
+    private class DoublePercentilesAttributeState extends PercentilesAttributeState {
+
+        @Override public Object processAdd(Object data) {
+            double value = (Double) data;
+            valuesTree.add(toSortableLong(value));
+            return getPercentileValues(valuesTree);
+        }
+
+        @Override public Object processRemove(Object obj) {
+            double value = (Double) obj;
+            valuesTree.remove(toSortableLong(value));
+            return getPercentileValues(valuesTree);
+        }
+    }
+
+    private class FloatPercentilesAttributeState extends PercentilesAttributeState {
+
+        @Override public Object processAdd(Object data) {
+            double value = (Float) data;
+            valuesTree.add(toSortableLong(value));
+            return getPercentileValues(valuesTree);
+        }
+
+        @Override public Object processRemove(Object obj) {
+            double value = (Float) obj;
+            valuesTree.remove(toSortableLong(value));
+            return getPercentileValues(valuesTree);
+        }
+    }
+
+    private class IntPercentilesAttributeState extends PercentilesAttributeState {
+
+        @Override public Object processAdd(Object data) {
+            valuesTree.add((Integer) data);
+            return getPercentileValues(valuesTree);
+        }
+
+        @Override public Object processRemove(Object obj) {
+            valuesTree.remove((Integer) obj);
+            return getPercentileValues(valuesTree);
+        }
+    }
+
+    private class LongPercentilesAttributeState extends PercentilesAttributeState {
+
+        @Override public Object processAdd(Object data) {
+            valuesTree.add((Long) data);
+            return getPercentileValues(valuesTree);
+        }
+
+        @Override public Object processRemove(Object obj) {
+            valuesTree.remove((Long) obj);
+            return getPercentileValues(valuesTree);
+        }
+    }
+}
@@ -26,15 +26,13 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
-import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
-
 /**
  * power(value,toPower);
  * A Class which is used to calculate power of a value.
@@ -75,7 +73,10 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                         "the output to the output stream, 'OutMediationStream. For example, (5.6d, 3.0d)" +
                         " returns 175.61599999999996.")
 )
-public class PowerFunctionExtension extends FunctionExecutor {
+public class PowerFunctionExtension extends NumericFunctionExecutor {
+
+    private boolean constantExponent;
+    private double exponent;
 
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
@@ -104,13 +105,29 @@ public class PowerFunctionExtension extends FunctionExecutor {
                     " or " + Attribute.Type.FLOAT + " or " + Attribute.Type.DOUBLE +
                     ", but found " + attributeType.toString());
         }
-        return null;
+        if (isConstant(1) && getConstant(1) != null) {
+            constantExponent = true;
+            exponent = ((Number) getConstant(1)).doubleValue();
+        }
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
     protected Object execute(Object[] data, State state) {
         if (data[0] != null && data[1] != null) {
-            return Math.pow(convertToDouble(data[0]), convertToDouble(data[1]));
+            if (constantExponent) {
+                double value = toDouble(data[0], 0);
+                // the exponents for which a product gives the same result as Math.pow
+                if (exponent == 2) {
+                    return value * value;
+                } else if (exponent == 1) {
+                    return value;
+                } else if (exponent == 0) {
+                    return 1.0;
+                }
+                return Math.pow(value, exponent);
+            }
+            return Math.pow(toDouble(data[0], 0), toDouble(data[1], 1));
         }
         return null;
     }
@@ -26,10 +26,10 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.MathFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
@@ -68,7 +68,7 @@ import io.siddhi.query.api.exception.SiddhiAppValidationException;
                         " the output to the output stream, " +
                         "'OutMediationStream'. For example, round(3252.353) returns 3252.")
 )
-public class RoundFunctionExtension extends FunctionExecutor {
+public class RoundFunctionExtension extends MathFunctionExecutor {
 
     private Attribute.Type returnType;
 
@@ -91,7 +91,7 @@ public class RoundFunctionExtension extends FunctionExecutor {
         } else {
             returnType = Attribute.Type.LONG;
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
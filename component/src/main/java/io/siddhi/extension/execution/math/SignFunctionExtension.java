@@ -26,15 +26,13 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
-import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
-
 /**
  * signum(a);
  * Returns the sign of a as '1.0' (if a is positive) or '-1.0' (if a is
@@ -72,7 +70,7 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                         "negative or zero and directs the result to the output stream, 'OutMediationStream'. " +
                         "For example, signum(-6.32d) returns -1.")
 )
-public class SignFunctionExtension extends FunctionExecutor {
+public class SignFunctionExtension extends NumericFunctionExecutor {
 
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
@@ -91,7 +89,7 @@ public class SignFunctionExtension extends FunctionExecutor {
                     " or " + Attribute.Type.FLOAT + " or " + Attribute.Type.DOUBLE +
                     ", but found " + attributeType.toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
@@ -102,7 +100,7 @@ public class SignFunctionExtension extends FunctionExecutor {
     @Override
     protected Object execute(Object data, State state) {
         if (data != null) {
-            return (int) Math.signum(convertToDouble(data));
+            return (int) Math.signum(toDouble(data, 0));
         }
         return null;
     }
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.math;
+
+import io.siddhi.annotation.Example;
+import io.siddhi.annotation.Extension;
+import io.siddhi.annotation.Parameter;
+import io.siddhi.annotation.ParameterOverload;
+import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.util.DataType;
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.exception.OperationNotSupportedException;
+import io.siddhi.core.executor.ConstantExpressionExecutor;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.query.processor.ProcessingMode;
+import io.siddhi.core.query.selector.attribute.aggregator.AttributeAggregatorExecutor;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.PercentileAttributeState;
+import io.siddhi.extension.execution.math.util.TDigest;
+import io.siddhi.query.api.definition.Attribute;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static io.siddhi.extension.execution.math.util.MathUtil.encodeSketch;
+
+/**
+ * AttributeAggregator which implements the following function.
+ * <code>sketch(value)</code>
+ * <code>sketch(value, compression)</code>
+ * <code>sketch(value, compression, asString)</code>
+ * Returns a t-digest quantile sketch of the stored values, encoded so that it can be sent to other nodes, merged with
+ * math:sketchMerge and queried with math:sketchQuantile.
+ * Accept Type(s): value: FLOAT,INT,LONG,DOUBLE / compression: DOUBLE / asString: BOOL
+ * Return Type: OBJECT holding a byte[], or STRING holding its Base64 encoding when asString is true
+ */
+@Extension(
+        name = "sketch",
+        namespace = "math",
+        description = "This function summarises the values of a given argument in a t-digest quantile sketch and " +
+                "returns the sketch in an encoded form of a few kilobytes. Sketches built on different nodes can " +
+                "be shipped instead of the raw events, combined with `math:sketchMerge` and queried for any " +
+                "percentile with `math:sketchQuantile`. When an event expires from a window one unit of weight " +
+                "is removed from the centroid closest to its value, hence the sketch stays approximate for " +
+                "sliding windows.",
+        parameters = {
+                @Parameter(
+                        name = "arg",
+                        description = "The value to be summarised.",
+                        type = {DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE},
+                        dynamic = true),
+                @Parameter(
+                        name = "compression",
+                        description = "The compression factor of the t-digest, between 10 and 10000. " +
+                                "Higher values give larger sketches and more accurate percentiles.",
+                        type = {DataType.DOUBLE},
+                        optional = true,
+                        defaultValue = "100.0"),
+                @Parameter(
+                        name = "as.string",
+                        description = "If true, the sketch is returned as a Base64 string, which suits " +
+                                "transports and stores that carry only text. Otherwise it is returned as a " +
+                                "byte array.",
+                        type = {DataType.BOOL},
+                        optional = true,
+                        defaultValue = "false")
+        },
+        parameterOverloads = {
+                @ParameterOverload(parameterNames = {"arg"}),
+                @ParameterOverload(parameterNames = {"arg", "compression"}),
+                @ParameterOverload(parameterNames = {"arg", "compression", "as.string"})
+        },
+        returnAttributes = @ReturnAttribute(
+                description = "The encoded sketch of the 'arg' values, as a byte array or as a Base64 string.",
+                type = {DataType.OBJECT, DataType.STRING}),
+        examples = {
+                @Example(
+                        syntax = "define stream InValueStream (nodeId string, latency double); \n" +
+                                "from InValueStream#window.timeBatch(1 min) \n" +
+                                "select nodeId, math:sketch(latency, 100.0, true) as latencySketch \n" +
+                                "insert into LatencySketchStream;",
+                        description = "This function summarises the latencies received by a node in each minute " +
+                                "in a Base64 encoded t-digest, which can be published to the node computing the " +
+                                "global percentiles."
+                )
+        }
+)
+public class SketchFunctionExtension extends AttributeAggregatorExecutor<PercentileAttributeState> {
+
+    private static final String DIGEST = "DIGEST";
+    private static final double DEFAULT_COMPRESSION = 100;
+    private double compression;
+    private boolean asString;
+
+    @Override
+    protected StateFactory<PercentileAttributeState> init(ExpressionExecutor[] expressionExecutors,
+                                                          ProcessingMode processingMode, boolean b,
+                                                          ConfigReader configReader,
+                                                          SiddhiQueryContext siddhiQueryContext) {
+        if (attributeExpressionExecutors.length < 1 || attributeExpressionExecutors.length > 3) {
+            throw new OperationNotSupportedException("Sketch function has to have 1 to 3 parameters, currently "
+                                                             + attributeExpressionExecutors.length +
+                                                             " parameters provided.");
+        }
+        Attribute.Type attributeType = attributeExpressionExecutors[0].getReturnType();
+        if (attributeType != Attribute.Type.INT && attributeType != Attribute.Type.LONG
+                && attributeType != Attribute.Type.FLOAT && attributeType != Attribute.Type.DOUBLE) {
+            throw new OperationNotSupportedException("Sketch not supported for " + attributeType);
+        }
+        compression = DEFAULT_COMPRESSION;
+        if (attributeExpressionExecutors.length > 1) {
+            if (!(attributeExpressionExecutors[1] instanceof ConstantExpressionExecutor)
+                    || attributeExpressionExecutors[1].getReturnType() != Attribute.Type.DOUBLE) {
+                throw new OperationNotSupportedException("Sketch compression has to be a constant double.");
+            }
+            compression = (Double) attributeExpressionExecutors[1].execute(null);
+            if (!(compression >= TDigest.MIN_COMPRESSION && compression <= TDigest.MAX_COMPRESSION)) {
+                throw new OperationNotSupportedException(
+                        "The t-digest compression should be between " + TDigest.MIN_COMPRESSION + " and " +
+                        TDigest.MAX_COMPRESSION + ". But found " + compression);
+            }
+        }
+        if (attributeExpressionExecutors.length > 2) {
+            if (!(attributeExpressionExecutors[2] instanceof ConstantExpressionExecutor)
+                    || attributeExpressionExecutors[2].getReturnType() != Attribute.Type.BOOL) {
+                throw new OperationNotSupportedException("Sketch as.string has to be a constant bool.");
+            }
+            asString = (Boolean) attributeExpressionExecutors[2].execute(null);
+        }
+        return SketchAttributeState::new;
+    }
+
+    @Override
+    public Object processAdd(Object data, PercentileAttributeState state) {
+        if (data == null) {
+            return state.currentValue();
+        }
+        return state.processAdd(data);
+    }
+
+    @Override public Object processAdd(Object[] data, PercentileAttributeState state) {
+        if (data == null || data[0] == null) {
+            return state.currentValue();
+        }
+        return state.processAdd(data[0]);
+    }
+
+    @Override public Object processRemove(Object data, PercentileAttributeState state) {
+        if (data == null) {
+            return state.currentValue();
+        }
+        return state.processRemove(data);
+    }
+
+    @Override public Object processRemove(Object[] data, PercentileAttributeState state) {
+        if (data == null || data[0] == null) {
+            return state.currentValue();
+        }
+        return state.processRemove(data[0]);
+    }
+
+    @Override public Object reset(PercentileAttributeState state) {
+        return state.reset();
+    }
+
+    @Override public Attribute.Type getReturnType() {
+        return asString ? Attribute.Type.STRING : Attribute.Type.OBJECT;
+    }
+
+    private class SketchAttributeState extends PercentileAttributeState {
+
+        private TDigest digest = new TDigest(compression);
+        // Encoding of the digest, kept until the digest changes.
+        private Object encoded;
+
+        @Override public Object processAdd(Object data) {
+            digest.add(((Number) data).doubleValue());
+            encoded = null;
+            return currentValue();
+        }
+
+        @Override public Object processRemove(Object obj) {
+            digest.remove(((Number) obj).doubleValue());
+            encoded = null;
+            return currentValue();
+        }
+
+        @Override public Object reset() {
+            digest.clear();
+            encoded = null;
+            return currentValue();
+        }
+
+        @Override public Object currentValue() {
+            if (encoded == null) {
+                encoded = encodeSketch(digest, asString);
+            }
+            return encoded;
+        }
+
+        @Override public double errorBound() {
+            return Double.NaN;
+        }
+
+        @Override public boolean canDestroy() {
+            return digest.isEmpty();
+        }
+
+        @Override public Map<String, Object> snapshot() {
+            return Collections.singletonMap(DIGEST, digest);
+        }
+
+        @Override public void restore(Map<String, Object> map) {
+            digest = (TDigest) map.get(DIGEST);
+            encoded = null;
+        }
+    }
+}
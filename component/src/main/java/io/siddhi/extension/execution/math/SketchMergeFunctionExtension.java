@@ -0,0 +1,287 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.math;
+
+import io.siddhi.annotation.Example;
+import io.siddhi.annotation.Extension;
+import io.siddhi.annotation.Parameter;
+import io.siddhi.annotation.ParameterOverload;
+import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.util.DataType;
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.exception.OperationNotSupportedException;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.query.processor.ProcessingMode;
+import io.siddhi.core.query.selector.attribute.aggregator.AttributeAggregatorExecutor;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.PercentileAttributeState;
+import io.siddhi.extension.execution.math.util.TDigest;
+import io.siddhi.query.api.definition.Attribute;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static io.siddhi.extension.execution.math.util.MathUtil.decodeSketch;
+import static io.siddhi.extension.execution.math.util.MathUtil.encodeSketch;
+
+/**
+ * AttributeAggregator which implements the following function.
+ * <code>sketchMerge(sketch)</code>
+ * Returns a quantile sketch summarising all the values of the stored sketches built by math:sketch.
+ * Accept Type(s): sketch: OBJECT,STRING
+ * Return Type: the type of the sketch argument
+ */
+@Extension(
+        name = "sketchMerge",
+        namespace = "math",
+        description = "This function merges the quantile sketches built by `math:sketch`, for example on " +
+                "different nodes, into one sketch that summarises all their values. The merged sketch can be " +
+                "queried with `math:sketchQuantile` or merged again. When a sketch expires from a window the " +
+                "remaining sketches are merged again, hence the result is the same as merging only the sketches " +
+                "in the window.",
+        parameters = {
+                @Parameter(
+                        name = "sketch",
+                        description = "The sketch to be merged, as a byte array or as a Base64 string.",
+                        type = {DataType.OBJECT, DataType.STRING},
+                        dynamic = true)
+        },
+        parameterOverloads = {
+                @ParameterOverload(parameterNames = {"sketch"})
+        },
+        returnAttributes = @ReturnAttribute(
+                description = "The merged sketch, in the same form as the 'sketch' argument.",
+                type = {DataType.OBJECT, DataType.STRING}),
+        examples = {
+                @Example(
+                        syntax = "define stream LatencySketchStream (nodeId string, latencySketch string); \n" +
+                                "from LatencySketchStream#window.time(1 min) \n" +
+                                "select math:sketchQuantile(math:sketchMerge(latencySketch), 99.0) as p99 \n" +
+                                "insert into OutMediationStream;",
+                        description = "This function merges the latency sketches received from all the nodes in " +
+                                "the last minute and returns the 99th percentile over all of them."
+                )
+        }
+)
+public class SketchMergeFunctionExtension extends AttributeAggregatorExecutor<PercentileAttributeState> {
+
+    private static final String DIGEST = "DIGEST";
+    private static final String DIGESTS = "DIGESTS";
+    private static final double DEFAULT_COMPRESSION = 100;
+    private boolean asString;
+
+    @Override
+    protected StateFactory<PercentileAttributeState> init(ExpressionExecutor[] expressionExecutors,
+                                                          ProcessingMode processingMode, boolean b,
+                                                          ConfigReader configReader,
+                                                          SiddhiQueryContext siddhiQueryContext) {
+        if (attributeExpressionExecutors.length != 1) {
+            throw new OperationNotSupportedException("Sketch merge function has to have exactly 1 parameter, " +
+                                                             "currently " + attributeExpressionExecutors.length +
+                                                             " parameters provided.");
+        }
+        Attribute.Type attributeType = attributeExpressionExecutors[0].getReturnType();
+        if (attributeType != Attribute.Type.OBJECT && attributeType != Attribute.Type.STRING) {
+            throw new OperationNotSupportedException("Sketch merge not supported for " + attributeType);
+        }
+        asString = attributeType == Attribute.Type.STRING;
+        if (processingMode == ProcessingMode.SLIDE) {
+            return SlidingSketchMergeAttributeState::new;
+        }
+        return SketchMergeAttributeState::new;
+    }
+
+    @Override
+    public Object processAdd(Object data, PercentileAttributeState state) {
+        if (data == null) {
+            return state.currentValue();
+        }
+        return state.processAdd(data);
+    }
+
+    @Override public Object processAdd(Object[] data, PercentileAttributeState state) {
+        // will not occur
+        return new IllegalStateException("Sketch merge cannot process data array, but found "
+                                                 + Arrays.deepToString(data));
+    }
+
+    @Override public Object processRemove(Object data, PercentileAttributeState state) {
+        if (data == null) {
+            return state.currentValue();
+        }
+        return state.processRemove(data);
+    }
+
+    @Override public Object processRemove(Object[] data, PercentileAttributeState state) {
+        // will not occur
+        return new IllegalStateException("Sketch merge cannot process data array, but found "
+                                                 + Arrays.deepToString(data));
+    }
+
+    @Override public Object reset(PercentileAttributeState state) {
+        return state.reset();
+    }
+
+    @Override public Attribute.Type getReturnType() {
+        return asString ? Attribute.Type.STRING : Attribute.Type.OBJECT;
+    }
+
+    /**
+     * Keeps only the running merge of the sketches received. Sketches are removed from sliding windows alone, batch
+     * windows reset the state instead, hence this state serves all other queries.
+     */
+    private class SketchMergeAttributeState extends PercentileAttributeState {
+
+        private TDigest merged;
+        private Object encoded;
+
+        @Override public Object processAdd(Object data) {
+            TDigest digest = decodeSketch(data);
+            if (merged == null) {
+                merged = digest;
+            } else {
+                merged.add(digest);
+            }
+            encoded = null;
+            return currentValue();
+        }
+
+        @Override public Object processRemove(Object obj) {
+            // Sketches are not removed outside sliding windows.
+            return currentValue();
+        }
+
+        @Override public Object reset() {
+            merged = null;
+            encoded = null;
+            return currentValue();
+        }
+
+        @Override public Object currentValue() {
+            if (encoded == null) {
+                encoded = encodeSketch(merged != null ? merged : new TDigest(DEFAULT_COMPRESSION), asString);
+            }
+            return encoded;
+        }
+
+        @Override public double errorBound() {
+            return Double.NaN;
+        }
+
+        @Override public boolean canDestroy() {
+            return merged == null || merged.isEmpty();
+        }
+
+        @Override public Map<String, Object> snapshot() {
+            return Collections.singletonMap(DIGEST, merged);
+        }
+
+        @Override public void restore(Map<String, Object> map) {
+            merged = (TDigest) map.get(DIGEST);
+            encoded = null;
+        }
+    }
+
+    /**
+     * Keeps the decoded digests of the sketches in a sliding window, so that an expired sketch can be taken out by
+     * merging the others again. An expired sketch is matched by decoding it and comparing the digests.
+     */
+    private class SlidingSketchMergeAttributeState extends PercentileAttributeState {
+
+        private List<TDigest> digests = new ArrayList<>();
+        private TDigest merged;
+        private Object encoded;
+
+        @Override public Object processAdd(Object data) {
+            TDigest digest = decodeSketch(data);
+            digests.add(digest);
+            if (merged != null && !merged.isEmpty()) {
+                merged.add(digest);
+            } else {
+                // Rebuilt on read with the compression of this first sketch.
+                merged = null;
+            }
+            encoded = null;
+            return currentValue();
+        }
+
+        @Override public Object processRemove(Object obj) {
+            TDigest removed = decodeSketch(obj);
+            for (int i = 0; i < digests.size(); i++) {
+                if (digests.get(i).sameAs(removed)) {
+                    digests.remove(i);
+                    merged = null;
+                    encoded = null;
+                    break;
+                }
+            }
+            return currentValue();
+        }
+
+        @Override public Object reset() {
+            digests.clear();
+            merged = null;
+            encoded = null;
+            return currentValue();
+        }
+
+        @Override public Object currentValue() {
+            if (encoded == null) {
+                encoded = encodeSketch(merged(), asString);
+            }
+            return encoded;
+        }
+
+        @Override public double errorBound() {
+            return Double.NaN;
+        }
+
+        /**
+         * @return merge of the sketches held, rebuilt after a removal with the compression of the first sketch
+         */
+        private TDigest merged() {
+            if (merged == null) {
+                merged = new TDigest(digests.isEmpty() ? DEFAULT_COMPRESSION : digests.get(0).getCompression());
+                for (TDigest digest : digests) {
+                    merged.add(digest);
+                }
+            }
+            return merged;
+        }
+
+        @Override public boolean canDestroy() {
+            return digests.isEmpty();
+        }
+
+        @Override public Map<String, Object> snapshot() {
+            return Collections.singletonMap(DIGESTS, digests);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override public void restore(Map<String, Object> map) {
+            digests = (List<TDigest>) map.get(DIGESTS);
+            merged = null;
+            encoded = null;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.math;
+
+import io.siddhi.annotation.Example;
+import io.siddhi.annotation.Extension;
+import io.siddhi.annotation.Parameter;
+import io.siddhi.annotation.ParameterOverload;
+import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.SystemParameter;
+import io.siddhi.annotation.util.DataType;
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.exception.SiddhiAppRuntimeException;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.snapshot.state.State;
+import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
+import io.siddhi.extension.execution.math.util.TDigest;
+import io.siddhi.query.api.definition.Attribute;
+import io.siddhi.query.api.exception.SiddhiAppValidationException;
+
+import static io.siddhi.extension.execution.math.util.MathUtil.decodeSketch;
+
+/**
+ * sketchQuantile(sketch, p);
+ * A Class which is used to estimate the pth percentile of the values summarised by a quantile sketch.
+ * sketch - Accept Type(s): OBJECT/STRING
+ * p - Accept Type(s): DOUBLE/INT/FLOAT/LONG
+ * Return Type(s): DOUBLE
+ */
+@Extension(
+        name = "sketchQuantile",
+        namespace = "math",
+        description = "This function estimates the pth percentile of the values summarised by a quantile sketch " +
+                "built by `math:sketch` or `math:sketchMerge`. It returns 0.0 for an empty sketch.",
+        parameters = {
+                @Parameter(
+                        name = "sketch",
+                        description = "The sketch, as a byte array or as a Base64 string.",
+                        type = {DataType.OBJECT, DataType.STRING},
+                        dynamic = true),
+                @Parameter(
+                        name = "p",
+                        description = "The percentile to be estimated, greater than 0 and lesser than or equal " +
+                                "to 100.",
+                        type = {DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE},
+                        dynamic = true),
+                @Parameter(
+                        name = "on.error",
+                        description = "What to do when 'p' is out of range or the sketch is not valid: `throw` an " +
+                                "exception, or return `null` or `nan` instead.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "the `on.error` system parameter")
+        },
+        parameterOverloads = {
+                @ParameterOverload(parameterNames = {"sketch", "p"}),
+                @ParameterOverload(parameterNames = {"sketch", "p", "on.error"})
+        },
+        systemParameter = {
+                @SystemParameter(
+                        name = "on.error",
+                        description = "What to do when 'p' is out of range or the sketch is not valid and the " +
+                                "query does not give an on.error argument.",
+                        defaultValue = "throw",
+                        possibleParameters = {"throw", "null", "nan"})
+        },
+        returnAttributes = @ReturnAttribute(
+                description = "Estimate of the 'p'th percentile of the values summarised by the sketch.",
+                type = {DataType.DOUBLE}),
+        examples = @Example(
+                syntax = "define stream LatencySketchStream (nodeId string, latencySketch string); \n" +
+                        "from LatencySketchStream \n" +
+                        "select nodeId, math:sketchQuantile(latencySketch, 95.0) as p95 \n" +
+                        "insert into OutMediationStream;",
+                description = "This function returns the 95th percentile of the latencies summarised by each " +
+                        "sketch received.")
+)
+public class SketchQuantileFunctionExtension extends NumericFunctionExecutor {
+
+    @Override
+    protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
+                                SiddhiQueryContext siddhiQueryContext) {
+        if (attributeExpressionExecutors.length < 2 || attributeExpressionExecutors.length > 3) {
+            throw new SiddhiAppValidationException("Invalid no of arguments passed to math:sketchQuantile() " +
+                    "function, required 2 or 3, but found " + attributeExpressionExecutors.length);
+        }
+        Attribute.Type attributeType = attributeExpressionExecutors[0].getReturnType();
+        if (attributeType != Attribute.Type.OBJECT && attributeType != Attribute.Type.STRING) {
+            throw new SiddhiAppValidationException("Invalid parameter type found for the first argument of " +
+                    "math:sketchQuantile() function, required " + Attribute.Type.OBJECT + " or " +
+                    Attribute.Type.STRING + ", but found " + attributeType.toString());
+        }
+        attributeType = attributeExpressionExecutors[1].getReturnType();
+        if (!((attributeType == Attribute.Type.DOUBLE)
+                || (attributeType == Attribute.Type.INT)
+                || (attributeType == Attribute.Type.FLOAT)
+                || (attributeType == Attribute.Type.LONG))) {
+            throw new SiddhiAppValidationException("Invalid parameter type found for the second argument of " +
+                    "math:sketchQuantile() function, required " + Attribute.Type.INT + " or " +
+                    Attribute.Type.LONG + " or " + Attribute.Type.FLOAT + " or " + Attribute.Type.DOUBLE +
+                    ", but found " + attributeType.toString());
+        }
+        initOnError(configReader, 2, "math:sketchQuantile()");
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
+    }
+
+    @Override
+    protected Object execute(Object[] data, State state) {
+        if (data[0] == null || data[1] == null) {
+            return null;
+        }
+        double percentile = toDouble(data[1], 1);
+        if (percentile <= 0 || percentile > 100) {
+            if (!throwsOnError()) {
+                return invalidInput();
+            }
+            throw new SiddhiAppRuntimeException("Percentile value should be in 0 < p <= 100 range. But found "
+                    + percentile);
+        }
+        TDigest digest;
+        try {
+            digest = decodeSketch(data[0]);
+        } catch (SiddhiAppRuntimeException e) {
+            if (throwsOnError()) {
+                throw e;
+            }
+            // a malformed sketch is rare, hence it is not worth checking the encoding beforehand
+            return invalidInput();
+        }
+        if (digest.isEmpty()) {
+            return 0.0;
+        }
+        return digest.quantile(percentile / 100);
+    }
+
+    @Override
+    protected Object execute(Object data, State state) {
+        return null;    // This method won't get called. Hence, unimplemented.
+    }
+
+    @Override
+    public Attribute.Type getReturnType() {
+        return Attribute.Type.DOUBLE;
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.math;
+
+import io.siddhi.annotation.Example;
+import io.siddhi.annotation.Extension;
+import io.siddhi.annotation.Parameter;
+import io.siddhi.annotation.ParameterOverload;
+import io.siddhi.annotation.ReturnAttribute;
+import io.siddhi.annotation.util.DataType;
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.exception.OperationNotSupportedException;
+import io.siddhi.core.executor.ConstantExpressionExecutor;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.query.processor.ProcessingMode;
+import io.siddhi.core.query.selector.attribute.aggregator.AttributeAggregatorExecutor;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.core.util.timestamp.TimestampGenerator;
+import io.siddhi.extension.execution.math.util.PercentileAttributeState;
+import io.siddhi.extension.execution.math.util.TDigest;
+import io.siddhi.query.api.definition.Attribute;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AttributeAggregator which implements the following function.
+ * <code>slidingPercentile(value, p, windowTime)</code>
+ * <code>slidingPercentile(value, p, windowTime, sliceCount)</code>
+ * <code>slidingPercentile(value, p, windowTime, sliceCount, compression)</code>
+ * Returns an estimate of the pth percentile of the values received within the last windowTime milliseconds.
+ * Accept Type(s): value: FLOAT,INT,LONG,DOUBLE / p: DOUBLE / windowTime: INT,LONG / sliceCount: INT /
+ * compression: DOUBLE
+ * Return Type: DOUBLE
+ */
+@Extension(
+        name = "slidingPercentile",
+        namespace = "math",
+        description = "This function estimates the pth percentile of the values received within a sliding period " +
+                "of time, using memory that does not grow with the number of events. The period is divided into " +
+                "time slices, each summarised by a t-digest, and the live slices are merged when the percentile " +
+                "is computed. A slice is dropped as a whole once it is older than the period, hence the period " +
+                "slides in steps of one slice. The function keeps its own window and must be used without a " +
+                "window, as the removals of a window are ignored. Time is read from the Siddhi app clock, so " +
+                "playback uses the event time.",
+        parameters = {
+                @Parameter(
+                        name = "arg",
+                        description = "The value of the parameter whose percentile should be found.",
+                        type = {DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE},
+                        dynamic = true),
+                @Parameter(
+                        name = "p",
+                        description = "Estimate of the percentile to be found (pth percentile) " +
+                                "where p is any number greater than 0 or lesser than or equal to 100.",
+                        type = {DataType.DOUBLE}),
+                @Parameter(
+                        name = "window.time",
+                        description = "The sliding period, for example `1 hour` or `24 hours`.",
+                        type = {DataType.INT, DataType.LONG}),
+                @Parameter(
+                        name = "slice.count",
+                        description = "The number of time slices the period is divided into. More slices make " +
+                                "the period slide in smaller steps but use more memory and time to merge.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "60"),
+                @Parameter(
+                        name = "compression",
+                        description = "The compression factor of the t-digest of each slice, between 10 and " +
+                                "10000. Higher values use more memory and give more accurate results.",
+                        type = {DataType.DOUBLE},
+                        optional = true,
+                        defaultValue = "100.0")
+        },
+        parameterOverloads = {
+                @ParameterOverload(parameterNames = {"arg", "p", "window.time"}),
+                @ParameterOverload(parameterNames = {"arg", "p", "window.time", "slice.count"}),
+                @ParameterOverload(parameterNames = {"arg", "p", "window.time", "slice.count", "compression"})
+        },
+        returnAttributes = @ReturnAttribute(
+                description = "Estimate of the 'p'th percentile value of the 'arg' values received within the " +
+                        "sliding period.",
+                type = {DataType.DOUBLE}),
+        examples = {
+                @Example(
+                        syntax = "define stream InValueStream (deviceId string, latency double); \n" +
+                                "from InValueStream \n" +
+                                "select deviceId, math:slidingPercentile(latency, 99.0, 24 hours, 96) as p99 \n" +
+                                "group by deviceId \n" +
+                                "insert into OutMediationStream;",
+                        description = "This function estimates the 99th percentile of the latencies of each " +
+                                "device over the last 24 hours, sliding in steps of 15 minutes. Each device " +
+                                "keeps at most 96 t-digests however many events it receives."
+                )
+        }
+)
+public class SlidingPercentileFunctionExtension extends AttributeAggregatorExecutor<PercentileAttributeState> {
+
+    private static final String SLICES = "SLICES";
+    private static final String SLICE_IDS = "SLICE_IDS";
+    private static final int DEFAULT_SLICE_COUNT = 60;
+    private static final double DEFAULT_COMPRESSION = 100;
+    private static final long NO_SLICE = Long.MIN_VALUE;
+    private double percentileValue;
+    private int sliceCount;
+    private long sliceDuration;
+    private double compression;
+    private TimestampGenerator timestampGenerator;
+
+    @Override
+    protected StateFactory<PercentileAttributeState> init(ExpressionExecutor[] expressionExecutors,
+                                                          ProcessingMode processingMode, boolean b,
+                                                          ConfigReader configReader,
+                                                          SiddhiQueryContext siddhiQueryContext) {
+        if (attributeExpressionExecutors.length < 3 || attributeExpressionExecutors.length > 5) {
+            throw new OperationNotSupportedException("Sliding percentile function has to have 3 to 5 parameters, " +
+                                                             "currently " + attributeExpressionExecutors.length +
+                                                             " parameters provided.");
+        }
+        Attribute.Type attributeType = attributeExpressionExecutors[0].getReturnType();
+        if (attributeType != Attribute.Type.INT && attributeType != Attribute.Type.LONG
+                && attributeType != Attribute.Type.FLOAT && attributeType != Attribute.Type.DOUBLE) {
+            throw new OperationNotSupportedException("Sliding percentile not supported for " + attributeType);
+        }
+        for (int i = 1; i < attributeExpressionExecutors.length; i++) {
+            if (!(attributeExpressionExecutors[i] instanceof ConstantExpressionExecutor)) {
+                throw new OperationNotSupportedException("Sliding percentile parameters other than the value " +
+                                                                 "have to be constants.");
+            }
+        }
+
+        Object percentileValueObject = attributeExpressionExecutors[1].execute(null);
+        if (!(percentileValueObject instanceof Double)) {
+            throw new OperationNotSupportedException("Percentile value should be of type double. But found "
+                                                             + attributeExpressionExecutors[1].getReturnType());
+        }
+        percentileValue = (Double) percentileValueObject;
+        if (percentileValue <= 0 || percentileValue > 100) {
+            throw new OperationNotSupportedException(
+                    "Percentile value should be in 0 < p <= 100 range. But found " + percentileValue);
+        }
+
+        Object windowTimeObject = attributeExpressionExecutors[2].execute(null);
+        if (!(windowTimeObject instanceof Integer) && !(windowTimeObject instanceof Long)) {
+            throw new OperationNotSupportedException("Sliding percentile window time should be of type int or " +
+                                                             "long. But found "
+                                                             + attributeExpressionExecutors[2].getReturnType());
+        }
+        long windowTime = ((Number) windowTimeObject).longValue();
+
+        sliceCount = DEFAULT_SLICE_COUNT;
+        if (attributeExpressionExecutors.length > 3) {
+            Object sliceCountObject = attributeExpressionExecutors[3].execute(null);
+            if (!(sliceCountObject instanceof Integer)) {
+                throw new OperationNotSupportedException("Sliding percentile slice count should be of type int. " +
+                                                                 "But found "
+                                                                 + attributeExpressionExecutors[3].getReturnType());
+            }
+            sliceCount = (Integer) sliceCountObject;
+        }
+        if (sliceCount < 1 || windowTime < sliceCount) {
+            throw new OperationNotSupportedException("Sliding percentile needs at least one slice and at least " +
+                                                             "one millisecond per slice. But found "
+                                                             + sliceCount + " slices for " + windowTime + " ms.");
+        }
+        sliceDuration = (windowTime + sliceCount - 1) / sliceCount;
+
+        compression = DEFAULT_COMPRESSION;
+        if (attributeExpressionExecutors.length > 4) {
+            Object compressionObject = attributeExpressionExecutors[4].execute(null);
+            if (!(compressionObject instanceof Double)) {
+                throw new OperationNotSupportedException("Sliding percentile compression should be of type " +
+                                                                 "double. But found "
+                                                                 + attributeExpressionExecutors[4].getReturnType());
+            }
+            compression = (Double) compressionObject;
+        }
+        if (!(compression >= TDigest.MIN_COMPRESSION && compression <= TDigest.MAX_COMPRESSION)) {
+            throw new OperationNotSupportedException(
+                    "The t-digest compression should be between " + TDigest.MIN_COMPRESSION + " and " +
+                    TDigest.MAX_COMPRESSION + ". But found " + compression);
+        }
+
+        timestampGenerator = siddhiQueryContext.getSiddhiAppContext().getTimestampGenerator();
+        return SlidingPercentileAttributeState::new;
+    }
+
+    @Override
+    public Object processAdd(Object data, PercentileAttributeState state) {
+        // will not occur
+        return new IllegalStateException("Sliding percentile need multiple input, but found " + data);
+    }
+
+    @Override public Object processAdd(Object[] data, PercentileAttributeState state) {
+        if (data == null) {
+            return state.currentValue();
+        }
+        return state.processAdd(data[0]);
+    }
+
+    @Override public Object processRemove(Object data, PercentileAttributeState state) {
+        // will not occur
+        return new IllegalStateException("Sliding percentile need multiple input, but found " + data);
+    }
+
+    @Override public Object processRemove(Object[] data, PercentileAttributeState state) {
+        if (data == null) {
+            return state.currentValue();
+        }
+        return state.processRemove(data[0]);
+    }
+
+    @Override public Object reset(PercentileAttributeState state) {
+        return state.reset();
+    }
+
+    @Override public Attribute.Type getReturnType() {
+        return Attribute.Type.DOUBLE;
+    }
+
+    private long currentSliceId() {
+        return timestampGenerator.currentTime() / sliceDuration;
+    }
+
+    /**
+     * Ring of t-digests, one per time slice. Slice i of the ring holds the values of the slice whose id, the time
+     * divided by the slice duration, is sliceIds[i]. The slices before the current one do not change, hence their
+     * merge is kept until the current slice moves on and is read together with the current slice, without merging
+     * the two.
+     */
+    private class SlidingPercentileAttributeState extends PercentileAttributeState {
+
+        private TDigest[] slices = new TDigest[sliceCount];
+        private long[] sliceIds = new long[sliceCount];
+        private TDigest closedSlices;
+        private long closedSlicesId = NO_SLICE;
+
+        SlidingPercentileAttributeState() {
+            Arrays.fill(sliceIds, NO_SLICE);
+        }
+
+        @Override public Object processAdd(Object data) {
+            long sliceId = currentSliceId();
+            int index = (int) Math.floorMod(sliceId, (long) sliceCount);
+            if (sliceIds[index] != sliceId) {
+                if (slices[index] == null) {
+                    slices[index] = new TDigest(compression);
+                } else {
+                    slices[index].clear();
+                }
+                sliceIds[index] = sliceId;
+            }
+            slices[index].add(((Number) data).doubleValue());
+            return getPercentile(sliceId);
+        }
+
+        @Override public Object processRemove(Object obj) {
+            // Values expire with their time slice.
+            return currentValue();
+        }
+
+        @Override public Object reset() {
+            Arrays.fill(sliceIds, NO_SLICE);
+            closedSlicesId = NO_SLICE;
+            return 0.0;
+        }
+
+        @Override public Object currentValue() {
+            return getPercentile(currentSliceId());
+        }
+
+        private double getPercentile(long sliceId) {
+            if (closedSlicesId != sliceId) {
+                if (closedSlices == null) {
+                    closedSlices = new TDigest(compression);
+                } else {
+                    closedSlices.clear();
+                }
+                for (int i = 0; i < sliceCount; i++) {
+                    if (sliceIds[i] != sliceId && isLive(i, sliceId)) {
+                        closedSlices.add(slices[i]);
+                    }
+                }
+                closedSlicesId = sliceId;
+            }
+            int current = (int) Math.floorMod(sliceId, (long) sliceCount);
+            double percentile = sliceIds[current] == sliceId
+                    ? closedSlices.quantile(percentileValue / 100, slices[current])
+                    : closedSlices.quantile(percentileValue / 100);
+            return Double.isNaN(percentile) ? 0.0 : percentile;
+        }
+
+        private boolean isLive(int index, long sliceId) {
+            return sliceIds[index] != NO_SLICE && sliceIds[index] > sliceId - sliceCount
+                    && sliceIds[index] <= sliceId;
+        }
+
+        @Override public boolean canDestroy() {
+            long sliceId = currentSliceId();
+            for (int i = 0; i < sliceCount; i++) {
+                if (isLive(i, sliceId) && !slices[i].isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override public Map<String, Object> snapshot() {
+            Map<String, Object> state = new HashMap<>();
+            state.put(SLICES, slices);
+            state.put(SLICE_IDS, sliceIds);
+            return state;
+        }
+
+        @Override public void restore(Map<String, Object> map) {
+            slices = (TDigest[]) map.get(SLICES);
+            sliceIds = (long[]) map.get(SLICE_IDS);
+            closedSlicesId = NO_SLICE;
+        }
+    }
+}
@@ -26,15 +26,13 @@ import io.siddhi.annotation.ReturnAttribute;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiQueryContext;
 import io.siddhi.core.executor.ExpressionExecutor;
-import io.siddhi.core.executor.function.FunctionExecutor;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.extension.execution.math.util.NumericFunctionExecutor;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 
-import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
-
 /**
  * sqrt(a);
  * Returns the square-root of a.
@@ -69,7 +67,7 @@ import static io.siddhi.extension.execution.math.util.MathUtil.convertToDouble;
                 description = "The function calculates the square-root value of the 'inValue' and directs the " +
                 "output to the output stream, 'OutMediationStream'. For example, sqrt(4d) returns 2.")
 )
-public class SquareRootFunctionExtension extends FunctionExecutor {
+public class SquareRootFunctionExtension extends NumericFunctionExecutor {
 
     @Override
     protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
@@ -88,7 +86,7 @@ public class SquareRootFunctionExtension extends FunctionExecutor {
                     " or " + Attribute.Type.FLOAT + " or " + Attribute.Type.DOUBLE +
                     ", but found " + attributeType.toString());
         }
-        return null;
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
     }
 
     @Override
@@ -99,7 +97,7 @@ public class SquareRootFunctionExtension extends FunctionExecutor {
     @Override
     protected Object execute(Object data, State state) {
         if (data != null) {
-            return Math.sqrt(convertToDouble(data));
+            return Math.sqrt(toDouble(data, 0));
         }
         return null;
     }
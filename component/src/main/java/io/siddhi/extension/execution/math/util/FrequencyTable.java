@@ -0,0 +1,206 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Multiset of long keys stored as a sorted array of distinct keys with their counts, and a Fenwick tree over the
+ * counts for rank lookups. Memory grows with the number of distinct keys rather than the number of keys, and
+ * adding or removing a key that is already known and looking up the k-th smallest key take O(log d) time on flat
+ * arrays. Adding a new distinct key shifts the arrays and rebuilds the tree in O(d), hence this suits low
+ * cardinality data such as status codes or rounded measurements.
+ */
+public class FrequencyTable implements OrderStatistics, Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Serialized in the compact form of SortedKeysCodec.
+    private transient long[] keys = new long[INITIAL_CAPACITY];
+    private transient int[] counts = new int[INITIAL_CAPACITY];
+    // One based Fenwick tree of the counts.
+    private transient int[] tree = new int[INITIAL_CAPACITY + 1];
+    private transient int distinct;
+    private transient int unused;
+    private transient int size;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return number of distinct keys held, including keys whose count dropped to zero and are not yet compacted
+     */
+    public int distinctCount() {
+        return distinct;
+    }
+
+    @Override
+    public void add(long key) {
+        int index = Arrays.binarySearch(keys, 0, distinct, key);
+        if (index >= 0) {
+            if (counts[index]++ == 0) {
+                unused--;
+            }
+            increment(index, 1);
+        } else {
+            index = -index - 1;
+            if (distinct == keys.length) {
+                int capacity = distinct + (distinct >> 1);
+                keys = Arrays.copyOf(keys, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+                tree = new int[capacity + 1];
+            }
+            System.arraycopy(keys, index, keys, index + 1, distinct - index);
+            System.arraycopy(counts, index, counts, index + 1, distinct - index);
+            keys[index] = key;
+            counts[index] = 1;
+            distinct++;
+            rebuild();
+        }
+        size++;
+    }
+
+    /**
+     * Removes one occurrence of the given key.
+     *
+     * @param key key to be removed
+     * @return false if the key is not present
+     */
+    @Override
+    public boolean remove(long key) {
+        int index = Arrays.binarySearch(keys, 0, distinct, key);
+        if (index < 0 || counts[index] == 0) {
+            return false;
+        }
+        size--;
+        if (--counts[index] > 0) {
+            increment(index, -1);
+        } else if (++unused > distinct / 2) {
+            compact();
+        } else {
+            increment(index, -1);
+        }
+        return true;
+    }
+
+    @Override
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int position = 0;
+        int remaining = index + 1;
+        for (int step = Integer.highestOneBit(distinct); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= distinct && tree[next] < remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return keys[position];
+    }
+
+    @Override
+    public void clear() {
+        distinct = 0;
+        unused = 0;
+        size = 0;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        long[] liveKeys = keys;
+        int[] liveCounts = counts;
+        int live = distinct;
+        if (unused > 0) {
+            liveKeys = new long[distinct];
+            liveCounts = new int[distinct];
+            live = 0;
+            for (int i = 0; i < distinct; i++) {
+                if (counts[i] > 0) {
+                    liveKeys[live] = keys[i];
+                    liveCounts[live++] = counts[i];
+                }
+            }
+        }
+        SortedKeysCodec.write(out, liveKeys, liveCounts, live);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        keys = new long[INITIAL_CAPACITY];
+        counts = new int[INITIAL_CAPACITY];
+        SortedKeysCodec.read(in, (key, count) -> {
+            if (distinct == keys.length) {
+                keys = Arrays.copyOf(keys, distinct + (distinct >> 1));
+                counts = Arrays.copyOf(counts, keys.length);
+            }
+            keys[distinct] = key;
+            counts[distinct++] = count;
+            size += count;
+        });
+        tree = new int[keys.length + 1];
+        rebuild();
+    }
+
+    private void increment(int index, int delta) {
+        for (int i = index + 1; i <= distinct; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Drops the keys whose count is zero, so that keys which left the window do not hold memory.
+     */
+    private void compact() {
+        int live = 0;
+        for (int i = 0; i < distinct; i++) {
+            if (counts[i] > 0) {
+                keys[live] = keys[i];
+                counts[live++] = counts[i];
+            }
+        }
+        distinct = live;
+        unused = 0;
+        rebuild();
+    }
+
+    private void rebuild() {
+        for (int i = 1; i <= distinct; i++) {
+            tree[i] = counts[i - 1];
+        }
+        for (int i = 1; i <= distinct; i++) {
+            int parent = i + (i & -i);
+            if (parent <= distinct) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
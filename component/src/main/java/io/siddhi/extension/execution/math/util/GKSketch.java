@@ -0,0 +1,188 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Greenwald-Khanna quantile summary. For n values added, the value returned for a quantile q has a rank within
+ * epsilon * n of q * n, while the summary keeps O((1 / epsilon) * log(epsilon * n)) tuples.
+ * <p>
+ * Each tuple holds a value v, g, the difference between the minimum rank of v and that of the previous tuple, and
+ * delta, the spread between the minimum and maximum rank of v. New values are collected in a small buffer and
+ * inserted in sorted batches. The summary cannot forget values, so it covers everything added since the last
+ * {@link #clear()}.
+ */
+public class GKSketch implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final double epsilon;
+    private double[] values;
+    private long[] g;
+    private long[] delta;
+    private int tupleCount;
+    private final double[] buffer;
+    private int bufferCount;
+    private long count;
+    private int insertsSinceCompress;
+    private final int compressInterval;
+
+    /**
+     * @param epsilon maximum rank error as a fraction of the number of values, 0 < epsilon < 1
+     */
+    public GKSketch(double epsilon) {
+        this.epsilon = epsilon;
+        this.compressInterval = (int) Math.max(1, Math.floor(1 / (2 * epsilon)));
+        this.buffer = new double[Math.min(compressInterval, 1024)];
+        this.values = new double[16];
+        this.g = new long[16];
+        this.delta = new long[16];
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public long size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public void add(double value) {
+        if (bufferCount == buffer.length) {
+            flush();
+        }
+        buffer[bufferCount++] = value;
+        count++;
+    }
+
+    public void clear() {
+        tupleCount = 0;
+        bufferCount = 0;
+        count = 0;
+        insertsSinceCompress = 0;
+    }
+
+    /**
+     * Returns a value whose rank is within epsilon * n of q * n.
+     *
+     * @param q quantile in the range [0, 1]
+     * @return estimated value, NaN if empty
+     */
+    public double quantile(double q) {
+        flush();
+        if (tupleCount == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        double targetError = epsilon * count;
+        long minRank = 0;
+        for (int i = 0; i < tupleCount - 1; i++) {
+            minRank += g[i];
+            long maxRank = minRank + delta[i];
+            if (maxRank - targetError <= rank && rank <= minRank + targetError) {
+                return values[i];
+            }
+        }
+        return values[tupleCount - 1];
+    }
+
+    /**
+     * Inserts the buffered values into the tuples in a single sorted pass. The merge runs from the largest value
+     * down so that it can be done in place.
+     */
+    private void flush() {
+        if (bufferCount == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, bufferCount);
+        int size = tupleCount + bufferCount;
+        if (size > values.length) {
+            int capacity = Math.max(size, values.length + (values.length >> 1));
+            values = Arrays.copyOf(values, capacity);
+            g = Arrays.copyOf(g, capacity);
+            delta = Arrays.copyOf(delta, capacity);
+        }
+        long previousCount = count - bufferCount;
+        int tuple = tupleCount - 1;
+        int i = bufferCount - 1;
+        for (int position = size - 1; position >= 0; position--) {
+            if (i >= 0 && (tuple < 0 || buffer[i] >= values[tuple])) {
+                values[position] = buffer[i];
+                g[position] = 1;
+                // the new minimum and maximum are known exactly
+                delta[position] = position == 0 || position == size - 1
+                        ? 0 : (long) Math.floor(2 * epsilon * (previousCount + i + 1));
+                i--;
+            } else {
+                values[position] = values[tuple];
+                g[position] = g[tuple];
+                delta[position] = delta[tuple];
+                tuple--;
+            }
+        }
+        tupleCount = size;
+        insertsSinceCompress += bufferCount;
+        bufferCount = 0;
+        if (insertsSinceCompress >= compressInterval) {
+            compress();
+            insertsSinceCompress = 0;
+        }
+    }
+
+    /**
+     * Merges adjacent tuples whose combined rank uncertainty stays below 2 * epsilon * n, keeping the first and
+     * the last tuple so that the minimum and maximum remain exact.
+     */
+    private void compress() {
+        if (tupleCount < 3) {
+            return;
+        }
+        long threshold = (long) Math.floor(2 * epsilon * count);
+        int head = tupleCount - 1;
+        int write = tupleCount - 1;
+        for (int i = tupleCount - 2; i >= 1; i--) {
+            if (g[i] + g[head] + delta[head] < threshold) {
+                g[head] += g[i];
+            } else {
+                values[write] = values[head];
+                g[write] = g[head];
+                delta[write] = delta[head];
+                write--;
+                head = i;
+            }
+        }
+        values[write] = values[head];
+        g[write] = g[head];
+        delta[write] = delta[head];
+        write--;
+        values[write] = values[0];
+        g[write] = g[0];
+        delta[write] = delta[0];
+        int size = tupleCount - write;
+        System.arraycopy(values, write, values, 0, size);
+        System.arraycopy(g, write, g, 0, size);
+        System.arraycopy(delta, write, delta, 0, size);
+        tupleCount = size;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * High dynamic range histogram of non-negative long values, following the bucket layout of Gil Tene's
+ * HdrHistogram. Values are recorded exactly up to the configured number of significant decimal digits, and
+ * recording or removing a value is a constant time counter update.
+ * <p>
+ * The counters are additionally summed in fixed size blocks so that a rank lookup scans the block totals first and
+ * then a single block, starting from whichever end of the histogram is closer to the requested rank. The histogram
+ * grows with the largest value recorded, not with the number of values.
+ */
+public class HdrHistogram implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int BLOCK_SHIFT = 6;
+
+    private final int significantDigits;
+    private final int subBucketHalfCountMagnitude;
+    private final int subBucketHalfCount;
+    private final long subBucketMask;
+    private final int leadingZeroCountBase;
+    private long[] counts;
+    private long[] blockTotals;
+    private long totalCount;
+
+    /**
+     * @param significantDigits number of significant decimal digits to preserve, between 1 and 5
+     */
+    public HdrHistogram(int significantDigits) {
+        if (significantDigits < 1 || significantDigits > 5) {
+            throw new IllegalArgumentException("Significant digits should be between 1 and 5. But found "
+                    + significantDigits);
+        }
+        this.significantDigits = significantDigits;
+        long largestValueWithSingleUnitResolution = 2 * (long) Math.pow(10, significantDigits);
+        int subBucketCountMagnitude = 64 - Long.numberOfLeadingZeros(largestValueWithSingleUnitResolution - 1);
+        this.subBucketHalfCountMagnitude = subBucketCountMagnitude - 1;
+        this.subBucketHalfCount = 1 << subBucketHalfCountMagnitude;
+        this.subBucketMask = (1L << subBucketCountMagnitude) - 1;
+        this.leadingZeroCountBase = 64 - subBucketHalfCountMagnitude - 1;
+        this.counts = new long[2 * subBucketHalfCount];
+        this.blockTotals = new long[blockCount(counts.length)];
+    }
+
+    public int getSignificantDigits() {
+        return significantDigits;
+    }
+
+    public long size() {
+        return totalCount;
+    }
+
+    public boolean isEmpty() {
+        return totalCount == 0;
+    }
+
+    /**
+     * Records one occurrence of the given value.
+     *
+     * @param value non-negative value
+     */
+    public void add(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Histogram cannot record negative value " + value);
+        }
+        int index = countsIndex(value);
+        if (index >= counts.length) {
+            resize(index);
+        }
+        counts[index]++;
+        blockTotals[index >> BLOCK_SHIFT]++;
+        totalCount++;
+    }
+
+    /**
+     * Removes one occurrence of the given value.
+     *
+     * @param value value recorded earlier
+     * @return false if no value in the same bucket has been recorded
+     */
+    public boolean remove(long value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = countsIndex(value);
+        if (index >= counts.length || counts[index] == 0) {
+            return false;
+        }
+        counts[index]--;
+        blockTotals[index >> BLOCK_SHIFT]--;
+        totalCount--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(blockTotals, 0);
+        totalCount = 0;
+    }
+
+    /**
+     * Returns the value at the given percentile using the nearest rank definition. The value reported is the
+     * highest value equivalent to the recorded values at that rank.
+     *
+     * @param percentile percentile in the range (0, 100]
+     * @return value at the percentile, 0 if the histogram is empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        return highestEquivalentValue(indexOfRank(Math.min(rank, totalCount)));
+    }
+
+    /**
+     * Finds the counter holding the value of the given one based rank.
+     */
+    private int indexOfRank(long rank) {
+        if (rank <= totalCount / 2) {
+            long seen = 0;
+            int block = 0;
+            while (seen + blockTotals[block] < rank) {
+                seen += blockTotals[block++];
+            }
+            int index = block << BLOCK_SHIFT;
+            while (true) {
+                seen += counts[index];
+                if (seen >= rank) {
+                    return index;
+                }
+                index++;
+            }
+        }
+        long allowedAbove = totalCount - rank;
+        long above = 0;
+        int block = blockTotals.length - 1;
+        while (above + blockTotals[block] <= allowedAbove) {
+            above += blockTotals[block--];
+        }
+        int index = Math.min(((block + 1) << BLOCK_SHIFT) - 1, counts.length - 1);
+        while (above + counts[index] <= allowedAbove) {
+            above += counts[index--];
+        }
+        return index;
+    }
+
+    private int countsIndex(long value) {
+        int bucketIndex = leadingZeroCountBase - Long.numberOfLeadingZeros(value | subBucketMask);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << subBucketHalfCountMagnitude) + (subBucketIndex - subBucketHalfCount);
+    }
+
+    private long highestEquivalentValue(int index) {
+        int bucketIndex = (index >> subBucketHalfCountMagnitude) - 1;
+        int subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+        if (bucketIndex < 0) {
+            subBucketIndex -= subBucketHalfCount;
+            bucketIndex = 0;
+        }
+        return ((long) subBucketIndex << bucketIndex) + ((1L << bucketIndex) - 1);
+    }
+
+    private void resize(int index) {
+        // grow to the end of the bucket holding the index
+        int length = ((index >> subBucketHalfCountMagnitude) + 1) << subBucketHalfCountMagnitude;
+        counts = Arrays.copyOf(counts, length);
+        blockTotals = Arrays.copyOf(blockTotals, blockCount(length));
+    }
+
+    private static int blockCount(int length) {
+        return (length + (1 << BLOCK_SHIFT) - 1) >> BLOCK_SHIFT;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Multiset of long keys which holds up to {@link #INLINE_LIMIT} keys in a single sorted array and moves them into an
+ * {@link OrderStatisticTree} only when there are more. A group by over millions of keys, each with a handful of
+ * values, then costs one small array per key instead of the node arrays of a tree. When removals bring a tree down
+ * to a quarter of the limit the keys move back into an array, so that the memory of a burst is given back.
+ */
+public class InlineOrderStatistics implements OrderStatistics, Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int INLINE_LIMIT = 64;
+    private static final int INITIAL_CAPACITY = 4;
+
+    // Sorted keys while there are at most INLINE_LIMIT of them, serialized in the compact form of SortedKeysCodec.
+    private transient long[] keys = new long[INITIAL_CAPACITY];
+    private int size;
+    // Set instead of keys when there are more keys than INLINE_LIMIT.
+    private OrderStatisticTree tree;
+
+    @Override
+    public int size() {
+        return tree != null ? tree.size() : size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void add(long key) {
+        if (tree != null) {
+            tree.add(key);
+            return;
+        }
+        if (size == INLINE_LIMIT) {
+            tree = new OrderStatisticTree();
+            for (int i = 0; i < size; i++) {
+                tree.add(keys[i]);
+            }
+            tree.add(key);
+            keys = null;
+            size = 0;
+            return;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, Math.min(INLINE_LIMIT, size << 1));
+        }
+        int position = upperBound(key);
+        System.arraycopy(keys, position, keys, position + 1, size - position);
+        keys[position] = key;
+        size++;
+    }
+
+    /**
+     * Removes one occurrence of the given key.
+     *
+     * @param key key to be removed
+     * @return false if the key is not present
+     */
+    @Override
+    public boolean remove(long key) {
+        if (tree != null) {
+            if (!tree.remove(key)) {
+                return false;
+            }
+            if (tree.size() <= INLINE_LIMIT / 4) {
+                keys = new long[INLINE_LIMIT / 2];
+                size = tree.size();
+                for (int i = 0; i < size; i++) {
+                    keys[i] = tree.get(i);
+                }
+                tree = null;
+            }
+            return true;
+        }
+        int position = Arrays.binarySearch(keys, 0, size, key);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+        size--;
+        return true;
+    }
+
+    @Override
+    public long get(int index) {
+        if (tree != null) {
+            return tree.get(index);
+        }
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return keys[index];
+    }
+
+    @Override
+    public void clear() {
+        if (tree != null) {
+            tree = null;
+            keys = new long[INITIAL_CAPACITY];
+        }
+        size = 0;
+    }
+
+    private int upperBound(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        if (tree == null) {
+            SortedKeysCodec.writeUnsorted(out, keys, size);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (tree == null) {
+            keys = new long[Math.max(INITIAL_CAPACITY, size)];
+            size = 0;
+            SortedKeysCodec.read(in, (key, count) -> {
+                Arrays.fill(keys, size, size + count, key);
+                size += count;
+            });
+        }
+    }
+}
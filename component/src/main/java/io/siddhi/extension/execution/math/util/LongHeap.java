@@ -0,0 +1,89 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import java.util.Arrays;
+
+/**
+ * Binary min heaps of long keys stored in plain arrays, shared by {@link StreamingMedian} and
+ * {@link SelectionBuffer}. A max heap is kept as a min heap of inverted keys.
+ */
+final class LongHeap {
+
+    private LongHeap() {
+    }
+
+    /**
+     * Adds a key to a heap of the given length, growing the array when it is full.
+     *
+     * @return the array holding the heap
+     */
+    static long[] push(long[] heap, int length, long key) {
+        if (length == heap.length) {
+            heap = Arrays.copyOf(heap, length + (length >> 1));
+        }
+        int index = length;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+        return heap;
+    }
+
+    /**
+     * Drops the smallest key of a heap.
+     *
+     * @return the new length of the heap
+     */
+    static int pop(long[] heap, int length) {
+        length--;
+        if (length > 0) {
+            heap[0] = heap[length];
+            siftDown(heap, length, 0);
+        }
+        return length;
+    }
+
+    static void heapify(long[] heap, int length) {
+        for (int i = (length >>> 1) - 1; i >= 0; i--) {
+            siftDown(heap, length, i);
+        }
+    }
+
+    static void siftDown(long[] heap, int length, int index) {
+        long key = heap[index];
+        int half = length >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < length && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (key <= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.event.ComplexEvent;
+import io.siddhi.core.executor.ConstantExpressionExecutor;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.executor.function.FunctionExecutor;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.query.api.definition.Attribute;
+import io.siddhi.query.api.exception.SiddhiAppValidationException;
+import org.apache.log4j.Logger;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base of the deterministic math functions. It finds the constant arguments in init(), so that subclasses can
+ * precompute what depends only on them, and when every argument is constant it computes the result once and
+ * returns it for every event without evaluating the call again.
+ * <p>
+ * Subclasses validate their arguments and set up their own fields in init(), and then call this init(). A
+ * constant call whose evaluation fails is not folded, so that the failure is still reported for each event.
+ * <p>
+ * Functions that can receive invalid input read an on.error policy through {@link #initOnError(ConfigReader, int,
+ * String)}. Unless the policy is `throw`, they check the input without throwing and return
+ * {@link #invalidInput()}, which counts the error and yields null or NaN.
+ */
+public abstract class MathFunctionExecutor extends FunctionExecutor {
+
+    private static final Logger log = Logger.getLogger(MathFunctionExecutor.class);
+    private static final String ON_ERROR_THROW = "throw";
+    private static final String ON_ERROR_NULL = "null";
+    private static final String ON_ERROR_NAN = "nan";
+
+    private boolean folded;
+    private Object foldedResult;
+    private String functionName;
+    private boolean throwOnError = true;
+    private Object errorValue;
+    private final AtomicLong errorCount = new AtomicLong();
+
+    @Override
+    protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
+                                SiddhiQueryContext siddhiQueryContext) {
+        Object[] constants = new Object[attributeExpressionExecutors.length];
+        boolean allConstant = constants.length > 0;
+        for (int i = 0; i < constants.length; i++) {
+            if (attributeExpressionExecutors[i] instanceof ConstantExpressionExecutor) {
+                constants[i] = attributeExpressionExecutors[i].execute(null);
+            } else {
+                allConstant = false;
+            }
+        }
+        if (allConstant) {
+            try {
+                foldedResult = constants.length == 1 ? execute(constants[0], null) : execute(constants, null);
+                folded = true;
+            } catch (RuntimeException e) {
+                // evaluated per event, which reports the failure
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Object execute(ComplexEvent event) {
+        if (folded) {
+            return foldedResult;
+        }
+        return super.execute(event);
+    }
+
+    /**
+     * Reads the on.error policy from the given argument when the function is called with it, or else from the
+     * on.error system parameter. The argument has to be a constant string.
+     *
+     * @param configReader system parameters of the function
+     * @param argument     index of the optional policy argument
+     * @param functionName name of the function as used in messages, such as math:parseInt()
+     */
+    protected void initOnError(ConfigReader configReader, int argument, String functionName) {
+        this.functionName = functionName;
+        String onError = configReader.readConfig("on.error", ON_ERROR_THROW);
+        if (argument < attributeExpressionExecutors.length) {
+            if (!isConstant(argument) || attributeExpressionExecutors[argument].getReturnType()
+                    != Attribute.Type.STRING) {
+                throw new SiddhiAppValidationException("The on.error argument of " + functionName + " function " +
+                        "has to be a constant string.");
+            }
+            onError = (String) getConstant(argument);
+        }
+        onError = onError.trim().toLowerCase(Locale.ENGLISH);
+        throwOnError = ON_ERROR_THROW.equals(onError);
+        switch (onError) {
+            case ON_ERROR_THROW:
+            case ON_ERROR_NULL:
+                errorValue = null;
+                break;
+            case ON_ERROR_NAN:
+                if (getReturnType() == Attribute.Type.DOUBLE) {
+                    errorValue = Double.NaN;
+                } else if (getReturnType() == Attribute.Type.FLOAT) {
+                    errorValue = Float.NaN;
+                } else {
+                    throw new SiddhiAppValidationException("The on.error policy '" + ON_ERROR_NAN + "' of "
+                            + functionName + " function is only supported for " + Attribute.Type.DOUBLE + " and "
+                            + Attribute.Type.FLOAT + " results, but the result is " + getReturnType());
+                }
+                break;
+            default:
+                throw new SiddhiAppValidationException("The on.error policy of " + functionName + " function " +
+                        "should be one of '" + ON_ERROR_THROW + "', '" + ON_ERROR_NULL + "' or '" + ON_ERROR_NAN
+                        + "', but found '" + onError + "'.");
+        }
+    }
+
+    /**
+     * @return whether invalid input should raise an exception, in which case the function does not have to check
+     * its input beforehand
+     */
+    protected boolean throwsOnError() {
+        return throwOnError;
+    }
+
+    /**
+     * Counts an invalid input that is not thrown. The count is logged each time it reaches a power of two.
+     *
+     * @return null or NaN, as set by the on.error policy
+     */
+    protected Object invalidInput() {
+        long count = errorCount.incrementAndGet();
+        if ((count & (count - 1)) == 0) {
+            log.warn(functionName + " function received invalid input " + count + " time(s), for which it " +
+                    "returned " + errorValue + ".");
+        }
+        return errorValue;
+    }
+
+    /**
+     * @return number of invalid inputs for which the function returned null or NaN
+     */
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    /**
+     * @param argument index of the argument
+     * @return whether the argument is a constant
+     */
+    protected boolean isConstant(int argument) {
+        return attributeExpressionExecutors[argument] instanceof ConstantExpressionExecutor;
+    }
+
+    /**
+     * @param argument index of a constant argument, see {@link #isConstant(int)}
+     * @return value of the constant argument
+     */
+    protected Object getConstant(int argument) {
+        return attributeExpressionExecutors[argument].execute(null);
+    }
+}
@@ -20,6 +20,8 @@ package io.siddhi.extension.execution.math.util;
 import io.siddhi.core.exception.SiddhiAppRuntimeException;
 import io.siddhi.query.api.definition.Attribute;
 
+import java.util.Base64;
+
 /**
  * Util class for the extensions
  */
@@ -47,4 +49,58 @@ public class MathUtil {
                 + ", " + Attribute.Type.LONG + ", " + Attribute.Type.FLOAT + "and " + Attribute.Type.DOUBLE
                 + "types to double.");
     }
+
+    /**
+     * Maps a double to a long whose signed ordering matches {@link Double#compare(double, double)}, so that
+     * doubles can be kept in primitive long based ordered structures.
+     *
+     * @param value double value
+     * @return order preserving long representation
+     */
+    public static long toSortableLong(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Inverse of {@link #toSortableLong(double)}.
+     *
+     * @param sortableLong order preserving long representation
+     * @return double value
+     */
+    public static double fromSortableLong(long sortableLong) {
+        return Double.longBitsToDouble(sortableLong ^ ((sortableLong >> 63) & Long.MAX_VALUE));
+    }
+
+    /**
+     * Decodes a quantile sketch built by math:sketch, given either as bytes or as a Base64 string.
+     *
+     * @param sketch encoded sketch
+     * @return decoded t-digest
+     */
+    public static TDigest decodeSketch(Object sketch) {
+        try {
+            if (sketch instanceof byte[]) {
+                return TDigest.fromBytes((byte[]) sketch);
+            } else if (sketch instanceof String) {
+                return TDigest.fromBytes(Base64.getDecoder().decode((String) sketch));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new SiddhiAppRuntimeException("Invalid quantile sketch: " + e.getMessage(), e);
+        }
+        throw new SiddhiAppRuntimeException("Invalid quantile sketch, expected a byte array or a string but found "
+                + sketch.getClass());
+    }
+
+    /**
+     * Encodes a t-digest as a quantile sketch, see {@link #decodeSketch(Object)}.
+     *
+     * @param digest   t-digest to be encoded
+     * @param asString whether to encode as a Base64 string rather than as bytes
+     * @return encoded sketch
+     */
+    public static Object encodeSketch(TDigest digest, boolean asString) {
+        byte[] bytes = digest.toBytes();
+        return asString ? Base64.getEncoder().encodeToString(bytes) : bytes;
+    }
 }
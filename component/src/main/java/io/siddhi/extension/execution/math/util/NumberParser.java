@@ -0,0 +1,383 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+/**
+ * Parses and checks strings holding numbers in the forms accepted by the parse methods of the JDK. Checks neither
+ * throw nor allocate, so that invalid input can be handled without the cost of a NumberFormatException. Parsing
+ * takes an exact fast path for the common short numbers and leaves everything else, including invalid input, to
+ * the JDK, so results and exceptions are always the same as those of the JDK.
+ */
+public final class NumberParser {
+
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+            1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+    // every integer up to these is exact in a double and a float respectively
+    private static final long DOUBLE_MANTISSA_LIMIT = 1L << 53;
+    private static final long FLOAT_MANTISSA_LIMIT = 1L << 24;
+    // decimal digits that can be accumulated without overflowing an int and a long respectively
+    private static final int INT_SAFE_DIGITS = 9;
+    private static final int LONG_SAFE_DIGITS = 18;
+    // larger exponents are left to the JDK, as a long run of leading zeros may balance them
+    private static final int EXPONENT_CAP = 1000;
+
+    private NumberParser() {
+    }
+
+    /**
+     * Parses a string as {@link Integer#parseInt(String)} does.
+     *
+     * @param value string to be parsed
+     * @return the int value of the string
+     * @throws NumberFormatException if the string is not an int
+     */
+    public static int parseInt(String value) {
+        if (value != null) {
+            int length = value.length();
+            int i = signLength(value);
+            if (i < length && length - i <= INT_SAFE_DIGITS) {
+                int result = 0;
+                for (; i < length; i++) {
+                    int digit = value.charAt(i) - '0';
+                    if (digit < 0 || digit > 9) {
+                        break;
+                    }
+                    result = result * 10 + digit;
+                }
+                if (i == length) {
+                    return value.charAt(0) == '-' ? -result : result;
+                }
+            }
+        }
+        return Integer.parseInt(value);
+    }
+
+    /**
+     * Parses a string as {@link Long#parseLong(String)} does.
+     *
+     * @param value string to be parsed
+     * @return the long value of the string
+     * @throws NumberFormatException if the string is not a long
+     */
+    public static long parseLong(String value) {
+        if (value != null) {
+            int length = value.length();
+            int i = signLength(value);
+            if (i < length && length - i <= LONG_SAFE_DIGITS) {
+                long result = 0;
+                for (; i < length; i++) {
+                    int digit = value.charAt(i) - '0';
+                    if (digit < 0 || digit > 9) {
+                        break;
+                    }
+                    result = result * 10 + digit;
+                }
+                if (i == length) {
+                    return value.charAt(0) == '-' ? -result : result;
+                }
+            }
+        }
+        return Long.parseLong(value);
+    }
+
+    /**
+     * Parses a string as {@link Double#parseDouble(String)} does.
+     *
+     * @param value string to be parsed
+     * @return the double value of the string
+     * @throws NumberFormatException if the string is not a floating point number
+     */
+    public static double parseDouble(String value) {
+        double result = parseExact(value, false);
+        return result == result ? result : Double.parseDouble(value);
+    }
+
+    /**
+     * Parses a string as {@link Float#parseFloat(String)} does.
+     *
+     * @param value string to be parsed
+     * @return the float value of the string
+     * @throws NumberFormatException if the string is not a floating point number
+     */
+    public static float parseFloat(String value) {
+        double result = parseExact(value, true);
+        return result == result ? (float) result : Float.parseFloat(value);
+    }
+
+    /**
+     * Checks a string as {@link Long#parseLong(String, int)} does, and whether its value is within the given range.
+     *
+     * @param value string to be checked
+     * @param radix radix of the digits
+     * @param min   smallest value accepted
+     * @param max   largest value accepted
+     * @return whether the string is an integer in the given radix and range
+     */
+    public static boolean isInteger(String value, int radix, long min, long max) {
+        if (value == null || radix < Character.MIN_RADIX || radix > Character.MAX_RADIX) {
+            return false;
+        }
+        int length = value.length();
+        if (length == 0) {
+            return false;
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = value.charAt(0);
+        if (first == '-' || first == '+') {
+            if (length == 1) {
+                return false;
+            }
+            negative = first == '-';
+            i++;
+        }
+        // accumulated as a negative number, which has the larger range
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / radix;
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = Character.digit(value.charAt(i), radix);
+            if (digit < 0 || result < multiplyLimit) {
+                return false;
+            }
+            result *= radix;
+            if (result < limit + digit) {
+                return false;
+            }
+            result -= digit;
+        }
+        long number = negative ? result : -result;
+        return number >= min && number <= max;
+    }
+
+    /**
+     * Checks a string as {@link Double#parseDouble(String)} does: surrounding whitespace and control characters,
+     * an optional sign, then NaN, Infinity, a decimal or a hexadecimal floating point number, optionally followed
+     * by a type suffix.
+     *
+     * @param value string to be checked
+     * @return whether the string is a floating point number
+     */
+    public static boolean isDecimal(String value) {
+        if (value == null) {
+            return false;
+        }
+        int end = value.length();
+        int i = 0;
+        while (i < end && value.charAt(i) <= ' ') {
+            i++;
+        }
+        while (end > i && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            i++;
+        }
+        if (value.startsWith("NaN", i)) {
+            return i + 3 == end;
+        }
+        if (value.startsWith("Infinity", i)) {
+            return i + 8 == end;
+        }
+        if (end > i) {
+            int suffix = value.charAt(end - 1) | 0x20;
+            if (suffix == 'f' || suffix == 'd') {
+                end--;
+            }
+        }
+        if (end - i > 1 && value.charAt(i) == '0' && (value.charAt(i + 1) | 0x20) == 'x') {
+            return isHexadecimal(value, i + 2, end);
+        }
+        int digits = 0;
+        while (i < end && isDigit(value.charAt(i), 10)) {
+            i++;
+            digits++;
+        }
+        if (i < end && value.charAt(i) == '.') {
+            i++;
+            while (i < end && isDigit(value.charAt(i), 10)) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < end && (value.charAt(i) | 0x20) == 'e') {
+            return isExponent(value, i + 1, end);
+        }
+        return i == end;
+    }
+
+    private static boolean isHexadecimal(String value, int i, int end) {
+        int digits = 0;
+        while (i < end && isDigit(value.charAt(i), 16)) {
+            i++;
+            digits++;
+        }
+        if (i < end && value.charAt(i) == '.') {
+            i++;
+            while (i < end && isDigit(value.charAt(i), 16)) {
+                i++;
+                digits++;
+            }
+        }
+        // the binary exponent is mandatory
+        return digits > 0 && i < end && (value.charAt(i) | 0x20) == 'p' && isExponent(value, i + 1, end);
+    }
+
+    private static boolean isExponent(String value, int i, int end) {
+        if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == end) {
+            return false;
+        }
+        while (i < end) {
+            if (!isDigit(value.charAt(i++), 10)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char character, int radix) {
+        if (character >= '0' && character <= '9') {
+            return true;
+        }
+        int letter = character | 0x20;
+        return radix == 16 && letter >= 'a' && letter <= 'f';
+    }
+
+    private static int signLength(String value) {
+        if (value.length() > 1) {
+            char first = value.charAt(0);
+            if (first == '-' || first == '+') {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Parses a decimal floating point number whose significant digits are exact in the target type and whose
+     * power of ten is exact as well, so that a single correctly rounded multiplication or division gives the
+     * correctly rounded result (Clinger's fast path).
+     *
+     * @return the value, or NaN if the string is outside the fast path or is not a number at all
+     */
+    private static double parseExact(String value, boolean single) {
+        if (value == null) {
+            return Double.NaN;
+        }
+        int end = value.length();
+        int i = 0;
+        while (i < end && value.charAt(i) <= ' ') {
+            i++;
+        }
+        while (end > i && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end > i) {
+            int suffix = value.charAt(end - 1) | 0x20;
+            if (suffix == 'f' || suffix == 'd') {
+                end--;
+            }
+        }
+        boolean negative = false;
+        if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            negative = value.charAt(i) == '-';
+            i++;
+        }
+        long limit = single ? FLOAT_MANTISSA_LIMIT : DOUBLE_MANTISSA_LIMIT;
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            char character = value.charAt(i);
+            int digit = character - '0';
+            if (digit >= 0 && digit <= 9) {
+                mantissa = mantissa * 10 + digit;
+                if (mantissa > limit) {
+                    return Double.NaN;
+                }
+                digits++;
+                if (point) {
+                    exponent--;
+                }
+            } else if (character == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        if (i < end && (value.charAt(i) | 0x20) == 'e') {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                negativeExponent = value.charAt(i) == '-';
+                i++;
+            }
+            if (i == end) {
+                return Double.NaN;
+            }
+            int explicit = 0;
+            for (; i < end; i++) {
+                int digit = value.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return Double.NaN;
+                }
+                explicit = explicit * 10 + digit;
+                if (explicit > EXPONENT_CAP) {
+                    return Double.NaN;
+                }
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        if (i != end) {
+            return Double.NaN;
+        }
+        if (mantissa == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+        double result;
+        if (single) {
+            if (exponent < -FLOAT_POWERS_OF_TEN.length + 1 || exponent >= FLOAT_POWERS_OF_TEN.length) {
+                return Double.NaN;
+            }
+            result = exponent < 0 ? (float) mantissa / FLOAT_POWERS_OF_TEN[-exponent]
+                    : (float) mantissa * FLOAT_POWERS_OF_TEN[exponent];
+        } else {
+            if (exponent < -DOUBLE_POWERS_OF_TEN.length + 1 || exponent >= DOUBLE_POWERS_OF_TEN.length) {
+                return Double.NaN;
+            }
+            result = exponent < 0 ? (double) mantissa / DOUBLE_POWERS_OF_TEN[-exponent]
+                    : (double) mantissa * DOUBLE_POWERS_OF_TEN[exponent];
+        }
+        return negative ? -result : result;
+    }
+}
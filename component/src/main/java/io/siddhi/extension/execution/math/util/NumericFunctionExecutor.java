@@ -0,0 +1,76 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.query.api.definition.Attribute;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Base of the functions over numeric arguments. A converter to double is chosen for each argument once in init()
+ * from its type, so that an argument is converted with the cast of its type instead of
+ * {@link MathUtil#convertToDouble(Object)} and its instanceof chain, or a switch on its type, on every event.
+ * <p>
+ * Subclasses validate their arguments in init() and then call this init(), which also folds calls whose
+ * arguments are all constant, see {@link MathFunctionExecutor}.
+ */
+public abstract class NumericFunctionExecutor extends MathFunctionExecutor {
+
+    private ToDoubleFunction<Object>[] converters;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected StateFactory init(ExpressionExecutor[] expressionExecutors, ConfigReader configReader,
+                                SiddhiQueryContext siddhiQueryContext) {
+        converters = new ToDoubleFunction[attributeExpressionExecutors.length];
+        for (int i = 0; i < converters.length; i++) {
+            converters[i] = converter(attributeExpressionExecutors[i].getReturnType());
+        }
+        return super.init(expressionExecutors, configReader, siddhiQueryContext);
+    }
+
+    /**
+     * Converts a non null argument to double.
+     *
+     * @param data     value of the argument
+     * @param argument index of the argument
+     * @return double value
+     */
+    protected double toDouble(Object data, int argument) {
+        return converters[argument].applyAsDouble(data);
+    }
+
+    private static ToDoubleFunction<Object> converter(Attribute.Type type) {
+        switch (type) {
+            case DOUBLE:
+                return data -> (Double) data;
+            case INT:
+                return data -> (Integer) data;
+            case LONG:
+                return data -> (Long) data;
+            case FLOAT:
+                return data -> (Float) data;
+            default:
+                return MathUtil::convertToDouble;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Sorted multiset of long keys held outside the Java heap. The keys are kept in ascending order across fixed size
+ * blocks of direct memory, so that a window of tens of millions of values adds no objects for the garbage
+ * collector to trace or copy. The heap holds only an index with the size of each block and a Fenwick tree over
+ * those sizes, a few bytes per block of {@link #BLOCK_CAPACITY} keys.
+ * <p>
+ * Add and remove binary search the blocks and then the block, and shift at most one block, while the k-th
+ * smallest key is found with a descent of the Fenwick tree. A full block is split in two and a block emptied below
+ * a quarter is merged with a neighbour, which rebuilds the index in O(n / {@link #BLOCK_CAPACITY}) time. The direct
+ * memory counts against the JVM's -XX:MaxDirectMemorySize limit and is released when the list is garbage collected.
+ */
+public class OffHeapSortedList implements OrderStatistics, Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int BLOCK_CAPACITY = 1024;
+    private static final int INITIAL_BLOCKS = 4;
+    // Blocks kept for reuse after a clear or a merge.
+    private static final int MAX_FREE_BLOCKS = 8;
+
+    // Serialized in the compact form of SortedKeysCodec.
+    private transient LongBuffer[] blocks = new LongBuffer[INITIAL_BLOCKS];
+    private transient int[] blockSizes = new int[INITIAL_BLOCKS];
+    // One based Fenwick tree of the block sizes.
+    private transient int[] tree = new int[INITIAL_BLOCKS + 1];
+    private transient int blockCount;
+    private transient int size;
+    private transient LongBuffer[] freeBlocks = new LongBuffer[MAX_FREE_BLOCKS];
+    private transient int freeBlockCount;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void add(long key) {
+        if (blockCount == 0) {
+            insertBlock(0);
+        }
+        int block = findBlock(key);
+        if (blockSizes[block] == BLOCK_CAPACITY) {
+            split(block);
+            if (key >= blocks[block + 1].get(0)) {
+                block++;
+            }
+        }
+        LongBuffer keys = blocks[block];
+        int blockSize = blockSizes[block];
+        int position = upperBound(keys, blockSize, key);
+        for (int i = blockSize; i > position; i--) {
+            keys.put(i, keys.get(i - 1));
+        }
+        keys.put(position, key);
+        blockSizes[block]++;
+        increment(block, 1);
+        size++;
+    }
+
+    /**
+     * Removes one occurrence of the given key.
+     *
+     * @param key key to be removed
+     * @return false if the key is not present
+     */
+    @Override
+    public boolean remove(long key) {
+        if (blockCount == 0) {
+            return false;
+        }
+        int block = findBlock(key);
+        LongBuffer keys = blocks[block];
+        int blockSize = blockSizes[block];
+        int position = lowerBound(keys, blockSize, key);
+        if (position == blockSize || keys.get(position) != key) {
+            return false;
+        }
+        for (int i = position + 1; i < blockSize; i++) {
+            keys.put(i - 1, keys.get(i));
+        }
+        blockSizes[block]--;
+        size--;
+        if (blockSizes[block] == 0) {
+            removeBlock(block);
+        } else if (blockSizes[block] >= BLOCK_CAPACITY / 4 || !mergeWithNeighbour(block)) {
+            increment(block, -1);
+        }
+        return true;
+    }
+
+    @Override
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int position = 0;
+        int remaining = index + 1;
+        for (int step = Integer.highestOneBit(blockCount); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= blockCount && tree[next] < remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return blocks[position].get(remaining - 1);
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < blockCount; i++) {
+            releaseBlock(blocks[i]);
+            blocks[i] = null;
+        }
+        blockCount = 0;
+        size = 0;
+    }
+
+    /**
+     * @return the first block whose largest key is not less than the given key, or the last block
+     */
+    private int findBlock(long key) {
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (blocks[middle].get(blockSizes[middle] - 1) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(LongBuffer keys, int length, long key) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys.get(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(LongBuffer keys, int length, long key) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys.get(middle) <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void split(int block) {
+        insertBlock(block + 1);
+        LongBuffer source = blocks[block];
+        LongBuffer target = blocks[block + 1];
+        int half = BLOCK_CAPACITY / 2;
+        for (int i = half; i < BLOCK_CAPACITY; i++) {
+            target.put(i - half, source.get(i));
+        }
+        blockSizes[block] = half;
+        blockSizes[block + 1] = BLOCK_CAPACITY - half;
+        rebuild();
+    }
+
+    /**
+     * Moves the given block into a neighbour when both fit in half a block.
+     *
+     * @return false if neither neighbour is small enough
+     */
+    private boolean mergeWithNeighbour(int block) {
+        int lower;
+        if (block > 0 && blockSizes[block - 1] + blockSizes[block] <= BLOCK_CAPACITY / 2) {
+            lower = block - 1;
+        } else if (block + 1 < blockCount && blockSizes[block] + blockSizes[block + 1] <= BLOCK_CAPACITY / 2) {
+            lower = block;
+        } else {
+            return false;
+        }
+        LongBuffer target = blocks[lower];
+        LongBuffer source = blocks[lower + 1];
+        int offset = blockSizes[lower];
+        for (int i = 0; i < blockSizes[lower + 1]; i++) {
+            target.put(offset + i, source.get(i));
+        }
+        blockSizes[lower] += blockSizes[lower + 1];
+        removeBlock(lower + 1);
+        return true;
+    }
+
+    private void insertBlock(int block) {
+        if (blockCount == blocks.length) {
+            int capacity = blockCount << 1;
+            blocks = Arrays.copyOf(blocks, capacity);
+            blockSizes = Arrays.copyOf(blockSizes, capacity);
+            tree = new int[capacity + 1];
+        }
+        System.arraycopy(blocks, block, blocks, block + 1, blockCount - block);
+        System.arraycopy(blockSizes, block, blockSizes, block + 1, blockCount - block);
+        blocks[block] = freeBlockCount > 0 ? freeBlocks[--freeBlockCount]
+                : ByteBuffer.allocateDirect(BLOCK_CAPACITY * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        blockSizes[block] = 0;
+        blockCount++;
+    }
+
+    private void removeBlock(int block) {
+        releaseBlock(blocks[block]);
+        System.arraycopy(blocks, block + 1, blocks, block, blockCount - block - 1);
+        System.arraycopy(blockSizes, block + 1, blockSizes, block, blockCount - block - 1);
+        blocks[--blockCount] = null;
+        rebuild();
+    }
+
+    private void releaseBlock(LongBuffer block) {
+        if (freeBlockCount < MAX_FREE_BLOCKS) {
+            freeBlocks[freeBlockCount++] = block;
+        }
+    }
+
+    private void increment(int block, int delta) {
+        for (int i = block + 1; i <= blockCount; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private void rebuild() {
+        for (int i = 1; i <= blockCount; i++) {
+            tree[i] = blockSizes[i - 1];
+        }
+        for (int i = 1; i <= blockCount; i++) {
+            int parent = i + (i & -i);
+            if (parent <= blockCount) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        long[] keys = new long[INITIAL_BLOCKS];
+        int[] counts = new int[INITIAL_BLOCKS];
+        int distinct = 0;
+        for (int block = 0; block < blockCount; block++) {
+            for (int i = 0; i < blockSizes[block]; i++) {
+                long key = blocks[block].get(i);
+                if (distinct > 0 && keys[distinct - 1] == key) {
+                    counts[distinct - 1]++;
+                } else {
+                    if (distinct == keys.length) {
+                        keys = Arrays.copyOf(keys, distinct << 1);
+                        counts = Arrays.copyOf(counts, distinct << 1);
+                    }
+                    keys[distinct] = key;
+                    counts[distinct++] = 1;
+                }
+            }
+        }
+        SortedKeysCodec.write(out, keys, counts, distinct);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        blocks = new LongBuffer[INITIAL_BLOCKS];
+        blockSizes = new int[INITIAL_BLOCKS];
+        tree = new int[INITIAL_BLOCKS + 1];
+        freeBlocks = new LongBuffer[MAX_FREE_BLOCKS];
+        // The keys arrive in ascending order, hence they are appended filling each block to three quarters.
+        SortedKeysCodec.read(in, (key, count) -> {
+            for (int i = 0; i < count; i++) {
+                if (blockCount == 0 || blockSizes[blockCount - 1] == BLOCK_CAPACITY * 3 / 4) {
+                    insertBlock(blockCount);
+                }
+                blocks[blockCount - 1].put(blockSizes[blockCount - 1]++, key);
+            }
+            size += count;
+        });
+        rebuild();
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Indexable multiset of primitive long keys backed by an array based treap.
+ * Each node holds a distinct key together with its multiplicity and the total multiplicity of its subtree,
+ * hence add, remove and k-th smallest lookups run in expected O(log n) time without boxing.
+ * Double values are stored using {@link MathUtil#toSortableLong(double)}.
+ * <p>
+ * The tree is serialized as its distinct keys in ascending order with their counts, see {@link SortedKeysCodec},
+ * instead of its node arrays.
+ */
+public class OrderStatisticTree implements OrderStatistics, Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int NIL = 0;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Node links are packed into a single int array so that a lookup touches as few cache lines as possible.
+    private static final int STRIDE = 4;
+    private static final int LEFT = 0;
+    private static final int RIGHT = 1;
+    private static final int SIZE = 2;
+    private static final int COUNT = 3;
+
+    private transient long[] keys;
+    private transient int[] nodes;
+    private transient int root = NIL;
+    private transient int nextNode = 1;
+    private transient int freeNode = NIL;
+
+    // Output of split(), kept in fields to avoid allocating a pair per call.
+    private transient int splitLeft;
+    private transient int splitRight;
+
+    public OrderStatisticTree() {
+        keys = new long[INITIAL_CAPACITY];
+        nodes = new int[INITIAL_CAPACITY * STRIDE];
+    }
+
+    /**
+     * @return total number of keys including duplicates
+     */
+    @Override
+    public int size() {
+        return nodes[root * STRIDE + SIZE];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == NIL;
+    }
+
+    /**
+     * Adds one occurrence of the given key.
+     *
+     * @param key key to be added
+     */
+    @Override
+    public void add(long key) {
+        int node = find(key);
+        if (node != NIL) {
+            nodes[node * STRIDE + COUNT]++;
+            for (node = root; keys[node] != key; node = child(node, key)) {
+                nodes[node * STRIDE + SIZE]++;
+            }
+            nodes[node * STRIDE + SIZE]++;
+            return;
+        }
+        root = insert(root, newNode(key));
+    }
+
+    /**
+     * Removes one occurrence of the given key.
+     *
+     * @param key key to be removed
+     * @return false if the key is not present
+     */
+    @Override
+    public boolean remove(long key) {
+        int node = find(key);
+        if (node == NIL) {
+            return false;
+        }
+        if (nodes[node * STRIDE + COUNT] > 1) {
+            nodes[node * STRIDE + COUNT]--;
+            for (node = root; keys[node] != key; node = child(node, key)) {
+                nodes[node * STRIDE + SIZE]--;
+            }
+            nodes[node * STRIDE + SIZE]--;
+        } else {
+            root = delete(root, key);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the k-th smallest key, counting duplicates.
+     *
+     * @param index zero based rank, 0 <= index < size()
+     * @return key at the given rank
+     */
+    @Override
+    public long get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        int node = root;
+        while (true) {
+            int base = node * STRIDE;
+            int leftSize = nodes[nodes[base + LEFT] * STRIDE + SIZE];
+            if (index < leftSize) {
+                node = nodes[base + LEFT];
+            } else if (index < leftSize + nodes[base + COUNT]) {
+                return keys[node];
+            } else {
+                index -= leftSize + nodes[base + COUNT];
+                node = nodes[base + RIGHT];
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        root = NIL;
+        nextNode = 1;
+        freeNode = NIL;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        long[] sortedKeys = new long[nextNode];
+        int[] counts = new int[nextNode];
+        int distinct = 0;
+        int[] stack = new int[INITIAL_CAPACITY];
+        int depth = 0;
+        int node = root;
+        while (node != NIL || depth > 0) {
+            while (node != NIL) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth << 1);
+                }
+                stack[depth++] = node;
+                node = nodes[node * STRIDE + LEFT];
+            }
+            node = stack[--depth];
+            sortedKeys[distinct] = keys[node];
+            counts[distinct++] = nodes[node * STRIDE + COUNT];
+            node = nodes[node * STRIDE + RIGHT];
+        }
+        SortedKeysCodec.write(out, sortedKeys, counts, distinct);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        keys = new long[INITIAL_CAPACITY];
+        nodes = new int[INITIAL_CAPACITY * STRIDE];
+        clear();
+        SortedKeysCodec.read(in, (key, count) -> {
+            int node = newNode(key);
+            nodes[node * STRIDE + SIZE] = count;
+            nodes[node * STRIDE + COUNT] = count;
+            root = insert(root, node);
+        });
+    }
+
+    private int find(long key) {
+        int node = root;
+        while (node != NIL && keys[node] != key) {
+            node = child(node, key);
+        }
+        return node;
+    }
+
+    private int child(int node, long key) {
+        return nodes[node * STRIDE + (key < keys[node] ? LEFT : RIGHT)];
+    }
+
+    private int newNode(long key) {
+        int node;
+        if (freeNode != NIL) {
+            node = freeNode;
+            freeNode = nodes[node * STRIDE + LEFT];
+        } else {
+            if (nextNode == keys.length) {
+                int capacity = keys.length + (keys.length >> 1);
+                keys = Arrays.copyOf(keys, capacity);
+                nodes = Arrays.copyOf(nodes, capacity * STRIDE);
+            }
+            node = nextNode++;
+        }
+        int base = node * STRIDE;
+        keys[node] = key;
+        nodes[base + LEFT] = NIL;
+        nodes[base + RIGHT] = NIL;
+        nodes[base + SIZE] = 1;
+        nodes[base + COUNT] = 1;
+        return node;
+    }
+
+    /**
+     * Heap priority of a node. Derived from the node slot with a multiplicative hash instead of being stored, as
+     * slots are handed out independently of the keys placed in them.
+     */
+    private static int priority(int node) {
+        int hash = node * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private void update(int node) {
+        int base = node * STRIDE;
+        nodes[base + SIZE] = nodes[nodes[base + LEFT] * STRIDE + SIZE] + nodes[base + COUNT]
+                + nodes[nodes[base + RIGHT] * STRIDE + SIZE];
+    }
+
+    private int insert(int tree, int node) {
+        if (tree == NIL) {
+            return node;
+        }
+        if (priority(node) > priority(tree)) {
+            split(tree, keys[node]);
+            nodes[node * STRIDE + LEFT] = splitLeft;
+            nodes[node * STRIDE + RIGHT] = splitRight;
+            update(node);
+            return node;
+        }
+        int link = tree * STRIDE + (keys[node] < keys[tree] ? LEFT : RIGHT);
+        nodes[link] = insert(nodes[link], node);
+        update(tree);
+        return tree;
+    }
+
+    private int delete(int tree, long key) {
+        int base = tree * STRIDE;
+        if (keys[tree] == key) {
+            int merged = merge(nodes[base + LEFT], nodes[base + RIGHT]);
+            nodes[base + LEFT] = freeNode;
+            freeNode = tree;
+            return merged;
+        }
+        int link = base + (key < keys[tree] ? LEFT : RIGHT);
+        nodes[link] = delete(nodes[link], key);
+        nodes[base + SIZE]--;
+        return tree;
+    }
+
+    /**
+     * Splits the tree into nodes with keys less than the given key (splitLeft) and the rest (splitRight).
+     */
+    private void split(int tree, long key) {
+        if (tree == NIL) {
+            splitLeft = NIL;
+            splitRight = NIL;
+        } else if (keys[tree] < key) {
+            split(nodes[tree * STRIDE + RIGHT], key);
+            nodes[tree * STRIDE + RIGHT] = splitLeft;
+            update(tree);
+            splitLeft = tree;
+        } else {
+            split(nodes[tree * STRIDE + LEFT], key);
+            nodes[tree * STRIDE + LEFT] = splitRight;
+            update(tree);
+            splitRight = tree;
+        }
+    }
+
+    private int merge(int lower, int upper) {
+        if (lower == NIL) {
+            return upper;
+        }
+        if (upper == NIL) {
+            return lower;
+        }
+        if (priority(lower) > priority(upper)) {
+            nodes[lower * STRIDE + RIGHT] = merge(nodes[lower * STRIDE + RIGHT], upper);
+            update(lower);
+            return lower;
+        }
+        nodes[upper * STRIDE + LEFT] = merge(lower, nodes[upper * STRIDE + LEFT]);
+        update(upper);
+        return upper;
+    }
+}
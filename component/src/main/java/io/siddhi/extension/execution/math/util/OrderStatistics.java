@@ -0,0 +1,56 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+/**
+ * Multiset of long keys that can return its k-th smallest key.
+ */
+public interface OrderStatistics {
+
+    /**
+     * Adds one occurrence of the given key.
+     *
+     * @param key key to be added
+     */
+    void add(long key);
+
+    /**
+     * Removes one occurrence of the given key.
+     *
+     * @param key key to be removed
+     * @return false if the key is not present
+     */
+    boolean remove(long key);
+
+    void clear();
+
+    /**
+     * @return total number of keys including duplicates
+     */
+    int size();
+
+    boolean isEmpty();
+
+    /**
+     * Returns the k-th smallest key, counting duplicates.
+     *
+     * @param index zero based rank, 0 <= index < size()
+     * @return key at the given rank
+     */
+    long get(int index);
+}
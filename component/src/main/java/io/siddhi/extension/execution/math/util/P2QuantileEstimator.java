@@ -0,0 +1,135 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * P-square estimator of a single quantile by Jain and Chlamtac. It keeps five markers, the minimum, the maximum,
+ * the estimated quantile and two points half way to it, and adjusts their heights with a piecewise parabolic fit as
+ * values arrive, hence it uses constant time per value and constant memory without storing any value: four arrays
+ * of five entries for the heights, positions, desired positions and position increments of the markers, the
+ * heights also holding the first five values. The estimate comes with no error bound and an update cannot be
+ * undone, so the estimator cannot forget values and covers everything added since the last {@link #clear()}. Until
+ * five values are added the quantile is taken from those values at the nearest rank.
+ */
+public class P2QuantileEstimator implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int MARKERS = 5;
+
+    private final double quantile;
+    private final double[] heights = new double[MARKERS];
+    private final long[] positions = new long[MARKERS];
+    private final double[] desiredPositions = new double[MARKERS];
+    private final double[] increments;
+    private long count;
+
+    /**
+     * @param quantile quantile to be estimated in the range (0, 1]
+     */
+    public P2QuantileEstimator(double quantile) {
+        this.quantile = quantile;
+        this.increments = new double[]{0, quantile / 2, quantile, (1 + quantile) / 2, 1};
+    }
+
+    public long size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public void add(double value) {
+        if (count < MARKERS) {
+            heights[(int) count++] = value;
+            if (count == MARKERS) {
+                Arrays.sort(heights);
+                for (int i = 0; i < MARKERS; i++) {
+                    positions[i] = i + 1;
+                    desiredPositions[i] = 1 + 4 * increments[i];
+                }
+            }
+            return;
+        }
+        int cell;
+        if (value < heights[0]) {
+            heights[0] = value;
+            cell = 0;
+        } else if (value >= heights[MARKERS - 1]) {
+            heights[MARKERS - 1] = value;
+            cell = MARKERS - 2;
+        } else {
+            cell = 0;
+            while (value >= heights[cell + 1]) {
+                cell++;
+            }
+        }
+        for (int i = cell + 1; i < MARKERS; i++) {
+            positions[i]++;
+        }
+        for (int i = 0; i < MARKERS; i++) {
+            desiredPositions[i] += increments[i];
+        }
+        count++;
+        for (int i = 1; i < MARKERS - 1; i++) {
+            double offset = desiredPositions[i] - positions[i];
+            if ((offset >= 1 && positions[i + 1] - positions[i] > 1)
+                    || (offset <= -1 && positions[i - 1] - positions[i] < -1)) {
+                int step = offset > 0 ? 1 : -1;
+                double height = parabolic(i, step);
+                if (heights[i - 1] < height && height < heights[i + 1]) {
+                    heights[i] = height;
+                } else {
+                    heights[i] += step * (heights[i + step] - heights[i]) / (positions[i + step] - positions[i]);
+                }
+                positions[i] += step;
+            }
+        }
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * @return estimated quantile, NaN if empty
+     */
+    public double getQuantile() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count < MARKERS) {
+            double[] values = Arrays.copyOf(heights, (int) count);
+            Arrays.sort(values);
+            return values[(int) Math.max(0, Math.ceil(quantile * count) - 1)];
+        }
+        // The last marker is the exact maximum, while the middle one only approaches it.
+        return quantile == 1 ? heights[MARKERS - 1] : heights[2];
+    }
+
+    private double parabolic(int i, int step) {
+        double below = positions[i] - positions[i - 1];
+        double above = positions[i + 1] - positions[i];
+        return heights[i] + step / (double) (positions[i + 1] - positions[i - 1])
+                * ((below + step) * (heights[i + 1] - heights[i]) / above
+                + (above - step) * (heights[i] - heights[i - 1]) / below);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Counts of removed keys not yet dropped from the heaps of {@link StreamingMedian} and {@link SelectionBuffer}, in an
+ * open addressing table with linear probing.
+ */
+final class PendingKeys implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int size;
+
+    void increment(long key) {
+        int slot = slot(key);
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) {
+                counts[slot]++;
+                return;
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        keys[slot] = key;
+        counts[slot] = 1;
+        if (++size > keys.length >> 1) {
+            resize();
+        }
+    }
+
+    /**
+     * @return true if the key was pending, in which case one occurrence is taken off
+     */
+    boolean decrement(long key) {
+        if (size == 0) {
+            return false;
+        }
+        int slot = slot(key);
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) {
+                if (--counts[slot] == 0) {
+                    delete(slot);
+                }
+                return true;
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        return false;
+    }
+
+    /**
+     * Pops the pending keys off the top of a heap, so that its smallest key is one still held.
+     *
+     * @param inverted whether the heap holds inverted keys
+     * @return the new length of the heap
+     */
+    int prune(long[] heap, int length, boolean inverted) {
+        while (length > 0 && decrement(inverted ? ~heap[0] : heap[0])) {
+            length = LongHeap.pop(heap, length);
+        }
+        return length;
+    }
+
+    /**
+     * Drops every pending key held by a heap and restores the heap order.
+     *
+     * @param inverted whether the heap holds inverted keys
+     * @return the new length of the heap
+     */
+    int purge(long[] heap, int length, boolean inverted) {
+        int kept = 0;
+        for (int i = 0; i < length; i++) {
+            if (!decrement(inverted ? ~heap[i] : heap[i])) {
+                heap[kept++] = heap[i];
+            }
+        }
+        LongHeap.heapify(heap, kept);
+        return kept;
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+        size = 0;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+    }
+
+    /**
+     * Empties a slot and shifts back the entries of the same probe sequence that follow it.
+     */
+    private void delete(int slot) {
+        size--;
+        int mask = keys.length - 1;
+        int next = (slot + 1) & mask;
+        while (counts[next] != 0) {
+            int home = slot(keys[next]);
+            // move the entry unless its home lies cyclically in (slot, next]
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                counts[slot] = counts[next];
+                counts[next] = 0;
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        counts[slot] = 0;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length << 1];
+        counts = new int[oldKeys.length << 1];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                while (counts[slot] != 0) {
+                    slot = (slot + 1) & (keys.length - 1);
+                }
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
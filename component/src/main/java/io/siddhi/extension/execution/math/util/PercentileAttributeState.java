@@ -31,4 +31,11 @@ public abstract class PercentileAttributeState extends State {
     public abstract Object reset();
 
     public abstract Object currentValue();
+
+    /**
+     * @return error bound guaranteed for the values returned by this state, 0 if they are exact
+     */
+    public double errorBound() {
+        return 0;
+    }
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Converts integers from one radix to another. Magnitudes that fit in 64 bits, signed or not, are converted on
+ * longs with the digits read and written through lookup tables, and wider ones on BigIntegers.
+ */
+public final class RadixConverter {
+
+    private static final char[] DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final byte[] DIGIT_VALUES = new byte[128];
+    // largest unsigned magnitude that can be multiplied by each radix without overflowing
+    private static final long[] MULTIPLY_LIMITS = new long[Character.MAX_RADIX + 1];
+    // number of digits in each radix that always fit in an unsigned 64 bit magnitude
+    private static final int[] SAFE_DIGITS = new int[Character.MAX_RADIX + 1];
+    // a sign and 64 binary digits
+    private static final int BUFFER_SIZE = 65;
+
+    static {
+        Arrays.fill(DIGIT_VALUES, (byte) -1);
+        for (int i = 0; i < DIGITS.length; i++) {
+            DIGIT_VALUES[DIGITS[i]] = (byte) i;
+            DIGIT_VALUES[Character.toUpperCase(DIGITS[i])] = (byte) i;
+        }
+        for (int radix = Character.MIN_RADIX; radix <= Character.MAX_RADIX; radix++) {
+            MULTIPLY_LIMITS[radix] = Long.divideUnsigned(-1L, radix);
+            BigInteger base = BigInteger.valueOf(radix);
+            while (base.pow(SAFE_DIGITS[radix] + 1).subtract(BigInteger.ONE).bitLength() <= Long.SIZE) {
+                SAFE_DIGITS[radix]++;
+            }
+        }
+    }
+
+    private RadixConverter() {
+    }
+
+    /**
+     * Converts an integer of any width from one radix to another. The value is read as
+     * {@link BigInteger#BigInteger(String, int)} reads it and written as {@link BigInteger#toString(int)} writes it,
+     * so values within the int range convert as they do with {@link Integer#parseInt(String, int)} and
+     * {@link Integer#toString(int, int)}.
+     *
+     * @param value     digits of the integer, optionally preceded by a sign
+     * @param fromRadix radix of the given digits
+     * @param toRadix   radix of the digits returned, or 10 if it is not a valid radix
+     * @return the integer in the target radix, or null if the value is not an integer in the source radix
+     */
+    public static String convert(String value, int fromRadix, int toRadix) {
+        if (value == null || fromRadix < Character.MIN_RADIX || fromRadix > Character.MAX_RADIX) {
+            return null;
+        }
+        if (toRadix < Character.MIN_RADIX || toRadix > Character.MAX_RADIX) {
+            toRadix = 10;
+        }
+        int length = value.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            i++;
+        }
+        if (i == length) {
+            return null;
+        }
+        long magnitude = 0;
+        if (length - i <= SAFE_DIGITS[fromRadix]) {
+            for (; i < length; i++) {
+                int digit = digit(value.charAt(i), fromRadix);
+                if (digit < 0) {
+                    return null;
+                }
+                magnitude = magnitude * fromRadix + digit;
+            }
+            return format(magnitude, negative && magnitude != 0, toRadix);
+        }
+        long limit = MULTIPLY_LIMITS[fromRadix];
+        for (; i < length; i++) {
+            int digit = digit(value.charAt(i), fromRadix);
+            if (digit < 0) {
+                return null;
+            }
+            if (Long.compareUnsigned(magnitude, limit) > 0) {
+                return convertWide(value, i, fromRadix, toRadix);
+            }
+            magnitude = magnitude * fromRadix + digit;
+            if (Long.compareUnsigned(magnitude, digit) < 0) {
+                return convertWide(value, i, fromRadix, toRadix);
+            }
+        }
+        return format(magnitude, negative && magnitude != 0, toRadix);
+    }
+
+    private static String convertWide(String value, int i, int fromRadix, int toRadix) {
+        for (; i < value.length(); i++) {
+            if (digit(value.charAt(i), fromRadix) < 0) {
+                return null;
+            }
+        }
+        return new BigInteger(value, fromRadix).toString(toRadix);
+    }
+
+    private static String format(long magnitude, boolean negative, int radix) {
+        if (radix == 10 && magnitude >= 0) {
+            // the JDK writes signed decimals faster, by two digits at a time
+            return Long.toString(negative ? -magnitude : magnitude);
+        }
+        char[] buffer = new char[BUFFER_SIZE];
+        int position = BUFFER_SIZE;
+        if ((radix & (radix - 1)) == 0) {
+            int shift = Integer.numberOfTrailingZeros(radix);
+            int mask = radix - 1;
+            do {
+                buffer[--position] = DIGITS[(int) magnitude & mask];
+                magnitude >>>= shift;
+            } while (magnitude != 0);
+        } else {
+            if (magnitude < 0) {
+                // above the signed range, so the first digit is taken off with an unsigned division
+                long quotient = Long.divideUnsigned(magnitude, radix);
+                buffer[--position] = DIGITS[(int) (magnitude - quotient * radix)];
+                magnitude = quotient;
+            }
+            do {
+                buffer[--position] = DIGITS[(int) (magnitude % radix)];
+                magnitude /= radix;
+            } while (magnitude != 0);
+        }
+        if (negative) {
+            buffer[--position] = '-';
+        }
+        return new String(buffer, position, BUFFER_SIZE - position);
+    }
+
+    private static int digit(char character, int radix) {
+        int digit = character < DIGIT_VALUES.length ? DIGIT_VALUES[character] : Character.digit(character, radix);
+        return digit < radix ? digit : -1;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static io.siddhi.extension.execution.math.util.LongHeap.heapify;
+import static io.siddhi.extension.execution.math.util.LongHeap.pop;
+import static io.siddhi.extension.execution.math.util.LongHeap.push;
+
+/**
+ * Long keys split in two heaps around the last rank read: a max heap with the keys up to that rank and a min heap
+ * with the keys after it. Adding or removing a key is O(log n), reading the last rank or the one after it is O(1),
+ * and any other read moves keys between the heaps at O(log n) each. As a percentile read after every event moves
+ * its rank by at most one, each event costs O(log n).
+ * <p>
+ * A read far from the last rank, such as the first read after a restore, partitions all the keys around the new
+ * rank with quickselect in expected O(n) instead.
+ * <p>
+ * As in {@link StreamingMedian}, removed keys are not searched for in the heaps but counted as pending until they
+ * reach the top of a heap, hence a removed key must have been added before.
+ */
+public class SelectionBuffer implements OrderStatistics, Serializable {
+
+    private static final long serialVersionUID = 2L;
+    private static final int INITIAL_CAPACITY = 16;
+    // Serialized in the compact form of SortedKeysCodec.
+    // The lower heap holds inverted keys, as ~key reverses the order of every long without overflow.
+    private transient long[] lower;
+    private transient int lowerLength;
+    private transient int lowerSize;
+    private transient long[] upper;
+    private transient int upperLength;
+    private transient int upperSize;
+    private transient PendingKeys pending;
+
+    public SelectionBuffer() {
+        init();
+    }
+
+    @Override
+    public int size() {
+        return lowerSize + upperSize;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return lowerSize + upperSize == 0;
+    }
+
+    @Override
+    public void add(long key) {
+        if (lowerSize > 0 ? key <= ~lower[0] : upperSize > 0 && key <= upper[0]) {
+            lower = push(lower, lowerLength++, ~key);
+            lowerSize++;
+        } else {
+            upper = push(upper, upperLength++, key);
+            upperSize++;
+        }
+    }
+
+    /**
+     * Removes one occurrence of a key that was added before.
+     *
+     * @param key key to be removed
+     * @return false if the key lies outside both heaps and hence is not present
+     */
+    @Override
+    public boolean remove(long key) {
+        if (lowerSize > 0 && key <= ~lower[0]) {
+            pending.increment(key);
+            lowerSize--;
+            if (key == ~lower[0]) {
+                lowerLength = pending.prune(lower, lowerLength, true);
+            } else if (lowerLength > 2 * lowerSize + INITIAL_CAPACITY) {
+                lowerLength = pending.purge(lower, lowerLength, true);
+            }
+        } else if (upperSize > 0 && key >= upper[0]) {
+            pending.increment(key);
+            upperSize--;
+            if (key == upper[0]) {
+                upperLength = pending.prune(upper, upperLength, false);
+            } else if (upperLength > 2 * upperSize + INITIAL_CAPACITY) {
+                upperLength = pending.purge(upper, upperLength, false);
+            }
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public long get(int index) {
+        int size = size();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (index == lowerSize) {
+            return upper[0];
+        }
+        int moves = Math.abs(index + 1 - lowerSize);
+        if (moves > 2 && moves > size >>> 4) {
+            partition(index);
+        }
+        while (lowerSize <= index) {
+            long key = upper[0];
+            upperLength = pending.prune(upper, pop(upper, upperLength), false);
+            upperSize--;
+            lower = push(lower, lowerLength++, ~key);
+            lowerSize++;
+        }
+        while (lowerSize > index + 1) {
+            long key = ~lower[0];
+            lowerLength = pending.prune(lower, pop(lower, lowerLength), true);
+            lowerSize--;
+            upper = push(upper, upperLength++, key);
+            upperSize++;
+        }
+        return ~lower[0];
+    }
+
+    @Override
+    public void clear() {
+        lowerLength = 0;
+        lowerSize = 0;
+        upperLength = 0;
+        upperSize = 0;
+        pending.clear();
+    }
+
+    private void init() {
+        lower = new long[INITIAL_CAPACITY];
+        upper = new long[INITIAL_CAPACITY];
+        pending = new PendingKeys();
+    }
+
+    /**
+     * Drops the pending keys and rebuilds the heaps with the keys up to the given rank in the lower heap.
+     */
+    private void partition(int index) {
+        int size = size();
+        long[] keys = new long[Math.max(size, INITIAL_CAPACITY)];
+        int count = 0;
+        for (int i = 0; i < lowerLength; i++) {
+            if (!pending.decrement(~lower[i])) {
+                keys[count++] = ~lower[i];
+            }
+        }
+        for (int i = 0; i < upperLength; i++) {
+            if (!pending.decrement(upper[i])) {
+                keys[count++] = upper[i];
+            }
+        }
+        select(keys, 0, size - 1, index);
+        upper = Arrays.copyOfRange(keys, index + 1, Math.max(size, index + 1 + INITIAL_CAPACITY));
+        upperLength = size - index - 1;
+        upperSize = upperLength;
+        heapify(upper, upperLength);
+        for (int i = 0; i <= index; i++) {
+            keys[i] = ~keys[i];
+        }
+        lower = keys;
+        lowerLength = index + 1;
+        lowerSize = lowerLength;
+        heapify(lower, lowerLength);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        lowerLength = pending.purge(lower, lowerLength, true);
+        upperLength = pending.purge(upper, upperLength, false);
+        long[] keys = Arrays.copyOf(upper, lowerLength + upperLength);
+        for (int i = 0; i < lowerLength; i++) {
+            keys[upperLength + i] = ~lower[i];
+        }
+        SortedKeysCodec.writeUnsorted(out, keys, keys.length);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        init();
+        // every key goes to the upper heap, and the first read far from rank 0 partitions them
+        SortedKeysCodec.read(in, (key, count) -> {
+            if (upperLength + count > upper.length) {
+                upper = Arrays.copyOf(upper, Math.max(upperLength + count, upper.length + (upper.length >> 1)));
+            }
+            Arrays.fill(upper, upperLength, upperLength + count, key);
+            upperLength += count;
+        });
+        upperSize = upperLength;
+        heapify(upper, upperLength);
+    }
+
+    /**
+     * Hoare style quickselect with a median of three pivot. Leaves keys[low, index) <= keys[index] <= keys(index,
+     * high].
+     */
+    private static void select(long[] keys, int low, int high, int index) {
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < keys[low]) {
+                swap(keys, middle, low);
+            }
+            if (keys[high] < keys[low]) {
+                swap(keys, high, low);
+            }
+            if (keys[high] < keys[middle]) {
+                swap(keys, high, middle);
+            }
+            long pivotKey = keys[middle];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[i] < pivotKey) {
+                    i++;
+                }
+                while (keys[j] > pivotKey) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(keys, i++, j--);
+                }
+            }
+            if (index <= j) {
+                high = j;
+            } else if (index >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void swap(long[] keys, int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+    }
+}
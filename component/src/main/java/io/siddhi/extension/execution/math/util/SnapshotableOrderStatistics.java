@@ -0,0 +1,186 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import io.siddhi.core.util.snapshot.SnapshotRequest;
+import io.siddhi.core.util.snapshot.state.Snapshot;
+import io.siddhi.core.util.snapshot.state.SnapshotStateList;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * {@link OrderStatistics} which records the keys added and removed since the last snapshot, so that incremental
+ * persistence stores only those changes instead of all the keys.
+ * <p>
+ * A snapshot holds the whole structure when it is the first one, when a full snapshot is requested, or when the
+ * changes outnumber the keys held. Otherwise it holds the changes, which can be applied in any order as the values
+ * form a multiset: adding all the added keys and then removing all the removed ones gives the same result.
+ */
+public class SnapshotableOrderStatistics implements OrderStatistics {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MIN_CHANGE_LOG_LIMIT = 64;
+    // Shared by empty change logs, so that a log allocates no arrays until a key is recorded.
+    private static final long[] NO_KEYS = new long[0];
+
+    private OrderStatistics values;
+    private ChangeLog changeLog = new ChangeLog();
+    private boolean forceFullSnapshot = true;
+
+    public SnapshotableOrderStatistics(OrderStatistics values) {
+        this.values = values;
+    }
+
+    @Override
+    public void add(long key) {
+        values.add(key);
+        if (!forceFullSnapshot) {
+            changeLog.added = append(changeLog.added, changeLog.addedCount++, key);
+            checkChangeLog();
+        }
+    }
+
+    @Override
+    public boolean remove(long key) {
+        if (!values.remove(key)) {
+            return false;
+        }
+        if (!forceFullSnapshot) {
+            changeLog.removed = append(changeLog.removed, changeLog.removedCount++, key);
+            checkChangeLog();
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        values.clear();
+        changeLog = new ChangeLog();
+        forceFullSnapshot = true;
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    @Override
+    public long get(int index) {
+        return values.get(index);
+    }
+
+    /**
+     * @return the whole structure or the changes since the previous snapshot
+     */
+    public Snapshot getSnapshot() {
+        if (forceFullSnapshot || SnapshotRequest.isRequestForFullSnapshot()) {
+            forceFullSnapshot = false;
+            changeLog = new ChangeLog();
+            return new Snapshot(values, false);
+        }
+        Snapshot snapshot = new Snapshot(changeLog, true);
+        changeLog = new ChangeLog();
+        return snapshot;
+    }
+
+    /**
+     * Restores the structure from a full snapshot followed by the incremental snapshots taken after it.
+     */
+    public void restore(SnapshotStateList snapshotStateList) {
+        for (Snapshot snapshot : snapshotStateList.getSnapshotStates().values()) {
+            if (snapshot.isIncrementalSnapshot()) {
+                ((ChangeLog) snapshot.getState()).applyTo(values);
+            } else {
+                values = (OrderStatistics) snapshot.getState();
+            }
+        }
+        changeLog = new ChangeLog();
+        forceFullSnapshot = false;
+    }
+
+    /**
+     * Drops the changes once they outnumber the keys held, as the next snapshot is then smaller in full.
+     */
+    private void checkChangeLog() {
+        if (changeLog.addedCount + changeLog.removedCount > Math.max(values.size(), MIN_CHANGE_LOG_LIMIT)) {
+            changeLog = new ChangeLog();
+            forceFullSnapshot = true;
+        }
+    }
+
+    private static long[] append(long[] keys, int index, long key) {
+        if (index == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(INITIAL_CAPACITY, keys.length << 1));
+        }
+        keys[index] = key;
+        return keys;
+    }
+
+    /**
+     * Keys added and removed since a snapshot, serialized in the compact form of {@link SortedKeysCodec}.
+     */
+    private static class ChangeLog implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private transient long[] added = NO_KEYS;
+        private transient int addedCount;
+        private transient long[] removed = NO_KEYS;
+        private transient int removedCount;
+
+        void applyTo(OrderStatistics values) {
+            for (int i = 0; i < addedCount; i++) {
+                values.add(added[i]);
+            }
+            for (int i = 0; i < removedCount; i++) {
+                values.remove(removed[i]);
+            }
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+            SortedKeysCodec.writeUnsorted(out, added, addedCount);
+            SortedKeysCodec.writeUnsorted(out, removed, removedCount);
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            added = NO_KEYS;
+            removed = NO_KEYS;
+            SortedKeysCodec.read(in, (key, count) -> {
+                for (int i = 0; i < count; i++) {
+                    added = append(added, addedCount++, key);
+                }
+            });
+            SortedKeysCodec.read(in, (key, count) -> {
+                for (int i = 0; i < count; i++) {
+                    removed = append(removed, removedCount++, key);
+                }
+            });
+        }
+    }
+}
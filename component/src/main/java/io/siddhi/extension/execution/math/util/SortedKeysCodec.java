@@ -0,0 +1,172 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Serialized form shared by the exact percentile structures: the distinct keys in ascending order with their counts.
+ * Each key is written as its unsigned difference from the previous key and every number as a varint, hence
+ * clustered values take one or two bytes each. Encodings larger than {@link #COMPRESSION_THRESHOLD} bytes are
+ * deflated when that makes them smaller.
+ */
+final class SortedKeysCodec {
+
+    private static final int RAW = 0;
+    private static final int DEFLATED = 1;
+    private static final int COMPRESSION_THRESHOLD = 4096;
+    // A long takes at most 10 varint bytes and an int 5.
+    private static final int MAX_ENTRY_BYTES = 15;
+
+    /**
+     * Receives the decoded keys in ascending order.
+     */
+    interface KeyCountConsumer {
+        void accept(long key, int count);
+    }
+
+    private SortedKeysCodec() {
+    }
+
+    static void write(ObjectOutputStream out, long[] keys, int[] counts, int length) throws IOException {
+        byte[] buffer = new byte[Math.max(64, length * 3)];
+        int position = 0;
+        long previous = 0;
+        for (int i = 0; i < length; i++) {
+            if (position + MAX_ENTRY_BYTES > buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length << 1);
+            }
+            position = writeVarLong(buffer, position, keys[i] - previous);
+            position = writeVarLong(buffer, position, counts[i]);
+            previous = keys[i];
+        }
+        out.writeInt(length);
+        if (position >= COMPRESSION_THRESHOLD) {
+            byte[] compressed = new byte[position];
+            int compressedLength = 0;
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(buffer, 0, position);
+                deflater.finish();
+                while (!deflater.finished() && compressedLength < compressed.length) {
+                    compressedLength += deflater.deflate(compressed, compressedLength,
+                            compressed.length - compressedLength);
+                }
+                if (deflater.finished() && compressedLength < position) {
+                    out.writeByte(DEFLATED);
+                    out.writeInt(position);
+                    out.writeInt(compressedLength);
+                    out.write(compressed, 0, compressedLength);
+                    return;
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+        out.writeByte(RAW);
+        out.writeInt(position);
+        out.write(buffer, 0, position);
+    }
+
+    /**
+     * Writes the given keys, in any order and with duplicates, in the same form as
+     * {@link #write(ObjectOutputStream, long[], int[], int)}.
+     */
+    static void writeUnsorted(ObjectOutputStream out, long[] keys, int length) throws IOException {
+        long[] sortedKeys = Arrays.copyOf(keys, length);
+        Arrays.sort(sortedKeys);
+        int[] counts = new int[length];
+        int distinct = 0;
+        for (int i = 0; i < length; i++) {
+            if (distinct > 0 && sortedKeys[distinct - 1] == sortedKeys[i]) {
+                counts[distinct - 1]++;
+            } else {
+                sortedKeys[distinct] = sortedKeys[i];
+                counts[distinct++] = 1;
+            }
+        }
+        write(out, sortedKeys, counts, distinct);
+    }
+
+    static void read(ObjectInputStream in, KeyCountConsumer consumer) throws IOException {
+        int length = in.readInt();
+        int format = in.readByte();
+        byte[] buffer = new byte[in.readInt()];
+        if (format == DEFLATED) {
+            byte[] compressed = new byte[in.readInt()];
+            in.readFully(compressed);
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                int inflated = 0;
+                while (inflated < buffer.length) {
+                    int read = inflater.inflate(buffer, inflated, buffer.length - inflated);
+                    if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new StreamCorruptedException("Truncated compressed percentile values");
+                    }
+                    inflated += read;
+                }
+            } catch (DataFormatException e) {
+                throw new StreamCorruptedException("Invalid compressed percentile values: " + e.getMessage());
+            } finally {
+                inflater.end();
+            }
+        } else if (format == RAW) {
+            in.readFully(buffer);
+        } else {
+            throw new StreamCorruptedException("Unknown percentile values format " + format);
+        }
+        int position = 0;
+        long key = 0;
+        for (int i = 0; i < length; i++) {
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            key += delta;
+            int count = 0;
+            shift = 0;
+            do {
+                b = buffer[position++];
+                count |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            consumer.accept(key, count);
+        }
+    }
+
+    private static int writeVarLong(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+}
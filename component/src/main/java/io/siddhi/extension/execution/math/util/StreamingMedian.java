@@ -0,0 +1,143 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import java.io.Serializable;
+
+import static io.siddhi.extension.execution.math.util.LongHeap.pop;
+import static io.siddhi.extension.execution.math.util.LongHeap.push;
+
+/**
+ * Running median of long keys kept in two heaps: a max heap with the lower half of the keys and a min heap with the
+ * upper half. Adding a key is O(log n) and the median is read from the heap tops in O(1).
+ * <p>
+ * Removed keys are not searched for in the heaps. They are counted as pending and dropped when they reach the top
+ * of a heap, or when pending keys make up most of a heap, in which case the heaps are rebuilt without them.
+ * A removed key must have been added before.
+ */
+public class StreamingMedian implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // The lower half is a min heap of inverted keys, as ~key reverses the order of every long without overflow.
+    private long[] lower = new long[INITIAL_CAPACITY];
+    private int lowerLength;
+    private int lowerSize;
+    private long[] upper = new long[INITIAL_CAPACITY];
+    private int upperLength;
+    private int upperSize;
+    private final PendingKeys pending = new PendingKeys();
+
+    public int size() {
+        return lowerSize + upperSize;
+    }
+
+    public boolean isEmpty() {
+        return lowerSize + upperSize == 0;
+    }
+
+    public void add(long key) {
+        if (lowerSize == 0 || key <= ~lower[0]) {
+            lower = push(lower, lowerLength++, ~key);
+            lowerSize++;
+        } else {
+            upper = push(upper, upperLength++, key);
+            upperSize++;
+        }
+        rebalance();
+    }
+
+    /**
+     * Removes one occurrence of a key that was added before.
+     *
+     * @param key key to be removed
+     */
+    public void remove(long key) {
+        pending.increment(key);
+        if (key <= ~lower[0]) {
+            lowerSize--;
+            if (key == ~lower[0]) {
+                pruneLower();
+            }
+        } else {
+            upperSize--;
+            if (key == upper[0]) {
+                pruneUpper();
+            }
+        }
+        rebalance();
+    }
+
+    /**
+     * @return the lower median, the middle key for an odd number of keys
+     */
+    public long lowerMedian() {
+        return ~lower[0];
+    }
+
+    /**
+     * @return the upper median, the same as the lower median for an odd number of keys
+     */
+    public long upperMedian() {
+        return lowerSize > upperSize ? ~lower[0] : upper[0];
+    }
+
+    public void clear() {
+        lowerLength = 0;
+        lowerSize = 0;
+        upperLength = 0;
+        upperSize = 0;
+        pending.clear();
+    }
+
+    /**
+     * Keeps lowerSize equal to upperSize or one more than it.
+     */
+    private void rebalance() {
+        if (lowerSize > upperSize + 1) {
+            long key = ~lower[0];
+            lowerLength = pop(lower, lowerLength);
+            lowerSize--;
+            pruneLower();
+            upper = push(upper, upperLength++, key);
+            upperSize++;
+        } else if (lowerSize < upperSize) {
+            long key = upper[0];
+            upperLength = pop(upper, upperLength);
+            upperSize--;
+            pruneUpper();
+            lower = push(lower, lowerLength++, ~key);
+            lowerSize++;
+        }
+        if (lowerLength > 2 * lowerSize + INITIAL_CAPACITY) {
+            lowerLength = pending.purge(lower, lowerLength, true);
+        }
+        if (upperLength > 2 * upperSize + INITIAL_CAPACITY) {
+            upperLength = pending.purge(upper, upperLength, false);
+        }
+    }
+
+    private void pruneLower() {
+        lowerLength = pending.prune(lower, lowerLength, true);
+    }
+
+    private void pruneUpper() {
+        upperLength = pending.prune(upper, upperLength, false);
+    }
+}
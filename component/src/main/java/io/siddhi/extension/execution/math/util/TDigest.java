@@ -0,0 +1,578 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.execution.math.util;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Merging t-digest (Dunning and Ertl) for approximate quantiles with memory fixed by the compression factor.
+ * Incoming values are buffered and merged into centroids using the arcsine scale function, which keeps the
+ * centroids near the tails small and therefore gives good accuracy for extreme percentiles. The buffer is kept
+ * sorted and is only merged when it is full, reads walk the centroids and the buffered values together.
+ * <p>
+ * A t-digest does not remember individual values, so {@link #remove(double)} is approximate: a value that is still
+ * in the merge buffer is removed exactly, otherwise one unit of weight is taken away from the closest of the
+ * buffered values and the centroids.
+ */
+public class TDigest implements Serializable {
+
+    /**
+     * Compression factors accepted, the largest of which bounds a digest and its scratch space to a few megabytes.
+     */
+    public static final double MIN_COMPRESSION = 10;
+    public static final double MAX_COMPRESSION = 10000;
+
+    private static final long serialVersionUID = 1L;
+    private static final int BUFFER_FACTOR = 5;
+    private static final byte ENCODING_VERSION = 2;
+    // version, compression, bounds and the numbers of centroids and of buffered values
+    private static final int ENCODING_HEADER_BYTES = 1 + 3 * Double.BYTES + 2 * Integer.BYTES;
+
+    private final double compression;
+    private double[] means;
+    private double[] weights;
+    private int centroidCount;
+    private final double[] buffer;
+    private int bufferCount;
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    // Scratch space for merges and for the views read by quantile(), allocated once as the digest size is bounded.
+    private transient double[] mergeMeans;
+    private transient double[] mergeWeights;
+    private transient double[] viewMeans;
+    private transient double[] viewWeights;
+
+    public TDigest(double compression) {
+        this.compression = compression;
+        int capacity = centroidCapacity(compression);
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.buffer = new double[bufferCapacity(compression)];
+    }
+
+    private static int centroidCapacity(double compression) {
+        return (int) Math.ceil(2 * compression) + 10;
+    }
+
+    private static int bufferCapacity(double compression) {
+        return (int) Math.ceil(BUFFER_FACTOR * compression);
+    }
+
+    public double getCompression() {
+        return compression;
+    }
+
+    /**
+     * @return total weight, i.e. the number of values represented by the digest
+     */
+    public double size() {
+        return totalWeight;
+    }
+
+    public boolean isEmpty() {
+        return totalWeight <= 0;
+    }
+
+    public void add(double value) {
+        if (bufferCount == buffer.length) {
+            merge();
+        }
+        int index = bufferIndex(value);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        System.arraycopy(buffer, index, buffer, index + 1, bufferCount - index);
+        buffer[index] = value;
+        bufferCount++;
+        totalWeight++;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Adds all values summarised by another digest to this one.
+     */
+    public void add(TDigest other) {
+        if (other.isEmpty()) {
+            return;
+        }
+        merge();
+        other.merge();
+        ensureScratch(centroidCount + other.centroidCount);
+        int count = mergeSorted(means, weights, centroidCount, other.means, other.weights, other.centroidCount,
+                mergeMeans, mergeWeights);
+        compress(mergeMeans, mergeWeights, count);
+        totalWeight += other.totalWeight;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Removes one occurrence of the given value, see the class comment for the approximation used.
+     */
+    public void remove(double value) {
+        if (totalWeight <= 0) {
+            return;
+        }
+        int bufferIndex = bufferIndex(value);
+        if (bufferIndex < 0) {
+            bufferIndex = nearest(buffer, bufferCount, -bufferIndex - 1, value);
+        }
+        int index = centroidCount > 0 ? Arrays.binarySearch(means, 0, centroidCount, value) : -1;
+        if (index < 0) {
+            index = nearest(means, centroidCount, -index - 1, value);
+        }
+        if (bufferIndex >= 0 && (buffer[bufferIndex] == value || index < 0
+                || Math.abs(buffer[bufferIndex] - value) <= Math.abs(means[index] - value))) {
+            System.arraycopy(buffer, bufferIndex + 1, buffer, bufferIndex, bufferCount - bufferIndex - 1);
+            bufferCount--;
+            totalWeight--;
+            updateBounds(value);
+            return;
+        }
+        double removed = Math.min(1, weights[index]);
+        weights[index] -= removed;
+        totalWeight -= removed;
+        if (weights[index] <= 0) {
+            System.arraycopy(means, index + 1, means, index, centroidCount - index - 1);
+            System.arraycopy(weights, index + 1, weights, index, centroidCount - index - 1);
+            centroidCount--;
+        }
+        updateBounds(value);
+    }
+
+    /**
+     * Checks whether another digest holds the same summary: the same compression, bounds, centroids and buffered
+     * values. A digest decoded from the encoding of another is the same as that one.
+     *
+     * @param other digest to be compared with
+     * @return whether both digests hold the same summary
+     */
+    public boolean sameAs(TDigest other) {
+        if (Double.compare(compression, other.compression) != 0 || centroidCount != other.centroidCount
+                || bufferCount != other.bufferCount || Double.compare(totalWeight, other.totalWeight) != 0
+                || Double.compare(min, other.min) != 0 || Double.compare(max, other.max) != 0) {
+            return false;
+        }
+        for (int i = 0; i < centroidCount; i++) {
+            if (Double.compare(means[i], other.means[i]) != 0 || Double.compare(weights[i], other.weights[i]) != 0) {
+                return false;
+            }
+        }
+        for (int i = 0; i < bufferCount; i++) {
+            if (Double.compare(buffer[i], other.buffer[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        centroidCount = 0;
+        bufferCount = 0;
+        totalWeight = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Returns an estimate of the given quantile. The buffered values are read as they are, without merging them.
+     *
+     * @param q quantile in the range [0, 1]
+     * @return estimated value, NaN if the digest is empty
+     */
+    public double quantile(double q) {
+        return quantile(q, means, weights, centroidCount, buffer, null, bufferCount, totalWeight, min, max);
+    }
+
+    /**
+     * Returns an estimate of the given quantile over the values of this digest and another one together, as
+     * {@link #add(TDigest)} followed by {@link #quantile(double)} would, but without changing either digest.
+     *
+     * @param q     quantile in the range [0, 1]
+     * @param other digest whose values are read along with the values of this one
+     * @return estimated value, NaN if both digests are empty
+     */
+    public double quantile(double q, TDigest other) {
+        if (other.isEmpty()) {
+            return quantile(q);
+        }
+        if (isEmpty()) {
+            return other.quantile(q);
+        }
+        int count = bufferCount == 0 ? centroidCount : view();
+        int otherCount = other.bufferCount == 0 ? other.centroidCount : other.view();
+        return quantile(q, bufferCount == 0 ? means : viewMeans, bufferCount == 0 ? weights : viewWeights, count,
+                other.bufferCount == 0 ? other.means : other.viewMeans,
+                other.bufferCount == 0 ? other.weights : other.viewWeights, otherCount,
+                totalWeight + other.totalWeight, Math.min(min, other.min), Math.max(max, other.max));
+    }
+
+    /**
+     * Estimates a quantile over two sorted runs of (mean, weight) pairs read in merged order, a run without weights
+     * holding values of unit weight. The pair of neighbours around the quantile is searched from the closer end,
+     * so that the tails, which are read most, are found after a few steps. Weights are whole numbers, hence the
+     * positions summed from either end are exact and both searches find the same pair.
+     */
+    private static double quantile(double q, double[] leftMeans, double[] leftWeights, int leftCount,
+                                   double[] rightMeans, double[] rightWeights, int rightCount,
+                                   double totalWeight, double min, double max) {
+        int count = leftCount + rightCount;
+        if (count == 0) {
+            return Double.NaN;
+        }
+        boolean firstIsLeft = rightCount == 0 || (leftCount > 0 && leftMeans[0] <= rightMeans[0]);
+        double firstMean = firstIsLeft ? leftMeans[0] : rightMeans[0];
+        if (count == 1) {
+            return firstMean;
+        }
+        double firstWeight = firstIsLeft ? weight(leftWeights, 0) : weight(rightWeights, 0);
+        boolean lastIsLeft = rightCount == 0
+                || (leftCount > 0 && leftMeans[leftCount - 1] > rightMeans[rightCount - 1]);
+        double lastMean = lastIsLeft ? leftMeans[leftCount - 1] : rightMeans[rightCount - 1];
+        double lastWeight = lastIsLeft ? weight(leftWeights, leftCount - 1) : weight(rightWeights, rightCount - 1);
+        double index = q * totalWeight;
+        if (index < 1) {
+            return min;
+        }
+        if (firstWeight > 1 && index < firstWeight / 2) {
+            return min + (index - 1) / (firstWeight / 2 - 1) * (firstMean - min);
+        }
+        if (index > totalWeight - 1) {
+            return max;
+        }
+        if (lastWeight > 1 && totalWeight - index <= lastWeight / 2) {
+            return max - (totalWeight - index - 1) / (lastWeight / 2 - 1) * (max - lastMean);
+        }
+        if (index < totalWeight / 2) {
+            // forwards from the first pair, i and j being the next positions in the runs
+            int i = firstIsLeft ? 1 : 0;
+            int j = firstIsLeft ? 0 : 1;
+            double mean = firstMean;
+            double weight = firstWeight;
+            double weightSoFar = firstWeight / 2;
+            while (i < leftCount || j < rightCount) {
+                double nextMean;
+                double nextWeight;
+                if (j == rightCount || (i < leftCount && leftMeans[i] <= rightMeans[j])) {
+                    nextMean = leftMeans[i];
+                    nextWeight = weight(leftWeights, i++);
+                } else {
+                    nextMean = rightMeans[j];
+                    nextWeight = weight(rightWeights, j++);
+                }
+                double delta = (weight + nextWeight) / 2;
+                if (weightSoFar + delta > index) {
+                    return interpolate(index, weightSoFar, mean, weight, nextMean, nextWeight);
+                }
+                weightSoFar += delta;
+                mean = nextMean;
+                weight = nextWeight;
+            }
+            return lastMean;
+        }
+        // backwards from the last pair, i and j being the ends of what is left of the runs
+        int i = lastIsLeft ? leftCount - 1 : leftCount;
+        int j = lastIsLeft ? rightCount : rightCount - 1;
+        double mean = lastMean;
+        double weight = lastWeight;
+        double weightSoFar = totalWeight - lastWeight / 2;
+        while (i > 0 || j > 0) {
+            double previousMean;
+            double previousWeight;
+            if (j == 0 || (i > 0 && leftMeans[i - 1] > rightMeans[j - 1])) {
+                previousMean = leftMeans[--i];
+                previousWeight = weight(leftWeights, i);
+            } else {
+                previousMean = rightMeans[--j];
+                previousWeight = weight(rightWeights, j);
+            }
+            double delta = (previousWeight + weight) / 2;
+            weightSoFar -= delta;
+            if (weightSoFar <= index) {
+                return interpolate(index, weightSoFar, previousMean, previousWeight, mean, weight);
+            }
+            mean = previousMean;
+            weight = previousWeight;
+        }
+        return firstMean;
+    }
+
+    /**
+     * Interpolates between neighbouring centroids, the left one centred at the given weight, treating centroids of
+     * unit weight as single values.
+     */
+    private static double interpolate(double index, double weightSoFar, double leftMean, double leftWeight,
+                                      double rightMean, double rightWeight) {
+        double delta = (leftWeight + rightWeight) / 2;
+        double leftUnit = 0;
+        if (leftWeight == 1) {
+            if (index - weightSoFar < 0.5) {
+                return leftMean;
+            }
+            leftUnit = 0.5;
+        }
+        double rightUnit = 0;
+        if (rightWeight == 1) {
+            if (weightSoFar + delta - index <= 0.5) {
+                return rightMean;
+            }
+            rightUnit = 0.5;
+        }
+        double leftDistance = index - weightSoFar - leftUnit;
+        double rightDistance = weightSoFar + delta - index - rightUnit;
+        return weightedAverage(leftMean, rightDistance, rightMean, leftDistance);
+    }
+
+    private static double weight(double[] weights, int index) {
+        return weights == null ? 1 : weights[index];
+    }
+
+    /**
+     * Encodes the digest as its compression, bounds, centroids and buffered values, so that it can be sent to
+     * another node and merged there, see {@link #fromBytes(byte[])}. The buffered values are written as they are
+     * rather than merged first, hence encoding does not change the digest and decoding restores it exactly.
+     *
+     * @return encoded digest
+     */
+    public byte[] toBytes() {
+        ByteBuffer bytes = ByteBuffer.allocate(ENCODING_HEADER_BYTES + 2 * Double.BYTES * centroidCount
+                + Double.BYTES * bufferCount);
+        bytes.put(ENCODING_VERSION).putDouble(compression).putDouble(min).putDouble(max)
+                .putInt(centroidCount).putInt(bufferCount);
+        for (int i = 0; i < centroidCount; i++) {
+            bytes.putDouble(means[i]).putDouble(weights[i]);
+        }
+        for (int i = 0; i < bufferCount; i++) {
+            bytes.putDouble(buffer[i]);
+        }
+        return bytes.array();
+    }
+
+    /**
+     * Decodes a digest encoded by {@link #toBytes()}.
+     *
+     * @param encoded encoded digest
+     * @return decoded digest
+     * @throws IllegalArgumentException if the bytes are not an encoded digest
+     */
+    public static TDigest fromBytes(byte[] encoded) {
+        ByteBuffer bytes = ByteBuffer.wrap(encoded);
+        if (encoded.length < ENCODING_HEADER_BYTES || bytes.get() != ENCODING_VERSION) {
+            throw new IllegalArgumentException("Not an encoded t-digest");
+        }
+        double compression = bytes.getDouble();
+        double min = bytes.getDouble();
+        double max = bytes.getDouble();
+        int centroidCount = bytes.getInt();
+        int bufferCount = bytes.getInt();
+        // Checked before anything is allocated, as the counts and the compression come from untrusted bytes.
+        if (!(compression >= MIN_COMPRESSION && compression <= MAX_COMPRESSION)) {
+            throw new IllegalArgumentException("Not an encoded t-digest, its compression " + compression
+                    + " is not between " + MIN_COMPRESSION + " and " + MAX_COMPRESSION);
+        }
+        if (centroidCount < 0 || centroidCount > centroidCapacity(compression)
+                || bufferCount < 0 || bufferCount > bufferCapacity(compression)) {
+            throw new IllegalArgumentException("Not an encoded t-digest, it holds more centroids or buffered "
+                    + "values than its compression allows");
+        }
+        if (bytes.remaining() != 2L * Double.BYTES * centroidCount + (long) Double.BYTES * bufferCount) {
+            throw new IllegalArgumentException("Not an encoded t-digest");
+        }
+        TDigest digest = new TDigest(compression);
+        for (int i = 0; i < centroidCount; i++) {
+            digest.means[i] = bytes.getDouble();
+            digest.weights[i] = bytes.getDouble();
+            digest.totalWeight += digest.weights[i];
+        }
+        for (int i = 0; i < bufferCount; i++) {
+            digest.buffer[i] = bytes.getDouble();
+            if (i > 0 && Double.compare(digest.buffer[i - 1], digest.buffer[i]) > 0) {
+                throw new IllegalArgumentException("Not an encoded t-digest, its buffered values are not sorted");
+            }
+        }
+        digest.centroidCount = centroidCount;
+        digest.bufferCount = bufferCount;
+        digest.totalWeight += bufferCount;
+        if (centroidCount > 0 || bufferCount > 0) {
+            digest.min = min;
+            digest.max = max;
+        }
+        return digest;
+    }
+
+    private void updateBounds(double removedValue) {
+        if (totalWeight <= 0) {
+            clear();
+            return;
+        }
+        if (removedValue <= min || removedValue >= max) {
+            // The exact extremes are lost with the removed value, fall back to the outermost remaining points.
+            double lower = centroidCount > 0 ? means[0] : Double.POSITIVE_INFINITY;
+            double upper = centroidCount > 0 ? means[centroidCount - 1] : Double.NEGATIVE_INFINITY;
+            if (bufferCount > 0) {
+                lower = Math.min(lower, buffer[0]);
+                upper = Math.max(upper, buffer[bufferCount - 1]);
+            }
+            if (removedValue <= min) {
+                min = lower;
+            }
+            if (removedValue >= max) {
+                max = upper;
+            }
+        }
+    }
+
+    /**
+     * Merges the buffered values into the centroids.
+     */
+    private void merge() {
+        if (bufferCount == 0) {
+            return;
+        }
+        ensureScratch(centroidCount + bufferCount);
+        int count = mergeSorted(means, weights, centroidCount, buffer, null, bufferCount, mergeMeans, mergeWeights);
+        bufferCount = 0;
+        compress(mergeMeans, mergeWeights, count);
+    }
+
+    /**
+     * Writes the centroids and the buffered values, as centroids of unit weight, in order into the view arrays.
+     *
+     * @return number of entries in the view
+     */
+    private int view() {
+        int size = centroidCount + bufferCount;
+        if (viewMeans == null || viewMeans.length < size) {
+            int capacity = Math.max(size, means.length + buffer.length);
+            viewMeans = new double[capacity];
+            viewWeights = new double[capacity];
+        }
+        return mergeSorted(means, weights, centroidCount, buffer, null, bufferCount, viewMeans, viewWeights);
+    }
+
+    /**
+     * Merges two sorted runs of (mean, weight) pairs, a run without weights holding values of unit weight.
+     *
+     * @return number of pairs written
+     */
+    private static int mergeSorted(double[] leftMeans, double[] leftWeights, int leftCount,
+                                   double[] rightMeans, double[] rightWeights, int rightCount,
+                                   double[] sortedMeans, double[] sortedWeights) {
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < leftCount || j < rightCount) {
+            if (j == rightCount || (i < leftCount && leftMeans[i] <= rightMeans[j])) {
+                sortedMeans[count] = leftMeans[i];
+                sortedWeights[count++] = leftWeights == null ? 1 : leftWeights[i];
+                i++;
+            } else {
+                sortedMeans[count] = rightMeans[j];
+                sortedWeights[count++] = rightWeights == null ? 1 : rightWeights[j];
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private int bufferIndex(double value) {
+        return Arrays.binarySearch(buffer, 0, bufferCount, value);
+    }
+
+    /**
+     * @return index of the value closest to the given one, given the index where it would be inserted, or -1 if the
+     * values are empty
+     */
+    private static int nearest(double[] values, int count, int insertionIndex, double value) {
+        if (count == 0) {
+            return -1;
+        }
+        if (insertionIndex == count || (insertionIndex > 0
+                && value - values[insertionIndex - 1] < values[insertionIndex] - value)) {
+            return insertionIndex - 1;
+        }
+        return insertionIndex;
+    }
+
+    /**
+     * Folds sorted (mean, weight) pairs into the centroid arrays respecting the size limit of the scale function.
+     */
+    private void compress(double[] sortedMeans, double[] sortedWeights, int count) {
+        if (count == 0) {
+            centroidCount = 0;
+            return;
+        }
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += sortedWeights[i];
+        }
+        int last = 0;
+        means[0] = sortedMeans[0];
+        weights[0] = sortedWeights[0];
+        double weightSoFar = 0;
+        double weightLimit = total * integratedQ(integratedLocation(0) + 1);
+        for (int i = 1; i < count; i++) {
+            double projectedWeight = weightSoFar + weights[last] + sortedWeights[i];
+            boolean merge = (projectedWeight <= weightLimit && i != count - 1) || last == means.length - 1;
+            if (merge) {
+                weights[last] += sortedWeights[i];
+                means[last] += (sortedMeans[i] - means[last]) * sortedWeights[i] / weights[last];
+            } else {
+                weightSoFar += weights[last];
+                weightLimit = total * integratedQ(integratedLocation(weightSoFar / total) + 1);
+                last++;
+                means[last] = sortedMeans[i];
+                weights[last] = sortedWeights[i];
+            }
+        }
+        centroidCount = last + 1;
+    }
+
+    private void ensureScratch(int size) {
+        if (mergeMeans == null || mergeMeans.length < size) {
+            int capacity = Math.max(size, means.length + buffer.length);
+            mergeMeans = new double[capacity];
+            mergeWeights = new double[capacity];
+        }
+    }
+
+    private double integratedLocation(double q) {
+        return compression * (Math.asin(2 * q - 1) + Math.PI / 2) / Math.PI;
+    }
+
+    private double integratedQ(double k) {
+        return (Math.sin(Math.min(k, compression) * Math.PI / compression - Math.PI / 2) + 1) / 2;
+    }
+
+    private static double weightedAverage(double x1, double w1, double x2, double w2) {
+        if (x1 > x2) {
+            return weightedAverage(x2, w2, x1, w1);
+        }
+        double value = (x1 * w1 + x2 * w2) / (w1 + w2);
+        return Math.max(x1, Math.min(value, x2));
+    }
+}
@@ -23,13 +23,20 @@ import io.siddhi.core.SiddhiManager;
 import io.siddhi.core.event.Event;
 import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.query.output.callback.QueryCallback;
+import io.siddhi.core.stream.StreamJunction;
 import io.siddhi.core.stream.input.InputHandler;
 import io.siddhi.core.util.EventPrinter;
+import io.siddhi.extension.execution.math.util.UnitTestAppender;
 import org.apache.log4j.Logger;
 import org.testng.AssertJUnit;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public class ConvertFunctionExtensionTestCase {
     protected static SiddhiManager siddhiManager;
     private static Logger logger = Logger.getLogger(ConvertFunctionExtensionTestCase.class);
@@ -159,4 +166,125 @@ public class ConvertFunctionExtensionTestCase {
         AssertJUnit.assertTrue(eventArrived);
         siddhiAppRuntime.shutdown();
     }
+
+    @Test
+    public void testProcessWideValues() throws Exception {
+        logger.info("ConvertFunctionExtension TestCase for values beyond the int range");
+
+        siddhiManager = new SiddhiManager();
+        String inValueStream = "define stream InValueStream (inValue string,fromBase int,toBase int);";
+
+        String eventFuseExecutionPlan = ("@info(name = 'query1') from InValueStream "
+                + "select math:conv(inValue,fromBase,toBase) as convertedValue "
+                + "insert into OutMediationStream;");
+        SiddhiAppRuntime siddhiAppRuntime =
+                siddhiManager.createSiddhiAppRuntime(inValueStream + eventFuseExecutionPlan);
+
+        List<Object> results = new ArrayList<>();
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents,
+                                Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event event : inEvents) {
+                    results.add(event.getData(0));
+                }
+            }
+        });
+        InputHandler inputHandler = siddhiAppRuntime
+                .getInputHandler("InValueStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{"3C5A9F01D2E4", 16, 10});
+        inputHandler.send(new Object[]{"FFFFFFFFFFFFFFFF", 16, 10});
+        inputHandler.send(new Object[]{"-9223372036854775808", 10, 16});
+        inputHandler.send(new Object[]{"123456789012345678901234567890", 10, 36});
+        Thread.sleep(100);
+        AssertJUnit.assertEquals(Arrays.asList("66359912420068", "18446744073709551615", "-8000000000000000",
+                new BigInteger("123456789012345678901234567890").toString(36)), results);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void exceptionTestCase6() throws Exception {
+        logger.info("ConvertFunctionExtension exceptionTestCase6");
+        siddhiManager = new SiddhiManager();
+        String inValueStream = "define stream InValueStream (inValue string,fromBase int,toBase int);";
+
+        String eventFuseExecutionPlan = ("@info(name = 'query1') from InValueStream "
+                                         + "select math:conv(inValue,37,toBase) as convertedValue "
+                                         + "insert into OutMediationStream;");
+        siddhiManager.createSiddhiAppRuntime(inValueStream + eventFuseExecutionPlan);
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void exceptionTestCase7() throws Exception {
+        logger.info("ConvertFunctionExtension exceptionTestCase7");
+        siddhiManager = new SiddhiManager();
+        String inValueStream = "define stream InValueStream (inValue string,fromBase int,toBase int);";
+
+        String eventFuseExecutionPlan = ("@info(name = 'query1') from InValueStream "
+                                         + "select math:conv(inValue,fromBase,1) as convertedValue "
+                                         + "insert into OutMediationStream;");
+        siddhiManager.createSiddhiAppRuntime(inValueStream + eventFuseExecutionPlan);
+    }
+
+    @Test
+    public void exceptionTestCase8() throws Exception {
+        logger.info("ConvertFunctionExtension exceptionTestCase8");
+        UnitTestAppender appender = new UnitTestAppender();
+        Logger junctionLogger = Logger.getLogger(StreamJunction.class);
+        junctionLogger.addAppender(appender);
+        siddhiManager = new SiddhiManager();
+        String inValueStream = "define stream InValueStream (inValue string,fromBase int,toBase int);";
+
+        String eventFuseExecutionPlan = ("@info(name = 'query1') from InValueStream "
+                                         + "select math:conv(inValue,fromBase,toBase) as convertedValue "
+                                         + "insert into OutMediationStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inValueStream +
+                                                                                             eventFuseExecutionPlan);
+        InputHandler inputHandler = siddhiAppRuntime
+                .getInputHandler("InValueStream");
+        siddhiAppRuntime.start();
+        // valid digits of an invalid base are reported as an invalid base
+        inputHandler.send(new Object[]{"7f", 40, 10});
+        Thread.sleep(100);
+        AssertJUnit.assertTrue(appender.getMessages().contains("Invalid base 40 for math:conv() function"));
+        junctionLogger.removeAppender(appender);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void testProcessInvalidBaseAsNull() throws Exception {
+        logger.info("ConvertFunctionExtension TestCase for invalid bases read from attributes");
+
+        siddhiManager = new SiddhiManager();
+        String inValueStream = "define stream InValueStream (inValue string,fromBase int,toBase int);";
+
+        String eventFuseExecutionPlan = ("@info(name = 'query1') from InValueStream "
+                + "select math:conv(inValue,fromBase,toBase,'null') as convertedValue "
+                + "insert into OutMediationStream;");
+        SiddhiAppRuntime siddhiAppRuntime =
+                siddhiManager.createSiddhiAppRuntime(inValueStream + eventFuseExecutionPlan);
+
+        List<Object> results = new ArrayList<>();
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents,
+                                Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event event : inEvents) {
+                    results.add(event.getData(0));
+                }
+            }
+        });
+        InputHandler inputHandler = siddhiAppRuntime
+                .getInputHandler("InValueStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{"7f", 40, 10});
+        inputHandler.send(new Object[]{"7f", 16, 1});
+        inputHandler.send(new Object[]{"7f", 16, 10});
+        Thread.sleep(100);
+        AssertJUnit.assertEquals(Arrays.asList(null, null, "127"), results);
+        siddhiAppRuntime.shutdown();
+    }
 }
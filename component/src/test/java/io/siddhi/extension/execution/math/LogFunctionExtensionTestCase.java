@@ -407,4 +407,76 @@ public class LogFunctionExtensionTestCase {
         Thread.sleep(100);
         siddhiAppRuntime.shutdown();
     }
+
+    @Test
+    public void testProcessConstantBase() throws Exception {
+        logger.info("LogFunctionExtension TestCase with constant bases");
+
+        siddhiManager = new SiddhiManager();
+        String inValueStream = "define stream InValueStream (number double, base double);";
+
+        String eventFuseExecutionPlan = ("@info(name = 'query1') from InValueStream "
+                                         + "select math:log(number, 10) as log10Value, "
+                                         + "math:log(number, 2.0) as log2Value, math:log(8, 2) as constantValue "
+                                         + "insert into OutMediationStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inValueStream +
+                                                                                 eventFuseExecutionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents,
+                                Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event event : inEvents) {
+                    eventArrived = true;
+                    AssertJUnit.assertEquals(3.0, event.getData(0));
+                    AssertJUnit.assertEquals(Math.log(1000) / Math.log(2), event.getData(1));
+                    AssertJUnit.assertEquals(3.0, event.getData(2));
+                }
+            }
+        });
+        InputHandler inputHandler = siddhiAppRuntime
+                .getInputHandler("InValueStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{1000d, 5d});
+        Thread.sleep(100);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void testProcessAttributeBase10() throws Exception {
+        logger.info("LogFunctionExtension TestCase with constant and attribute bases of 10");
+
+        siddhiManager = new SiddhiManager();
+        String inValueStream = "define stream InValueStream (number double, base double);";
+
+        String eventFuseExecutionPlan = ("@info(name = 'query1') from InValueStream "
+                                         + "select math:log(number, 10) as constantBaseValue, "
+                                         + "math:log(number, base) as attributeBaseValue "
+                                         + "insert into OutMediationStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inValueStream +
+                                                                                 eventFuseExecutionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents,
+                                Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event event : inEvents) {
+                    eventArrived = true;
+                    // Math.log(1000) / Math.log(10) would give 2.9999999999999996
+                    AssertJUnit.assertEquals(3.0, event.getData(0));
+                    AssertJUnit.assertEquals(event.getData(0), event.getData(1));
+                }
+            }
+        });
+        InputHandler inputHandler = siddhiAppRuntime
+                .getInputHandler("InValueStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{1000d, 10d});
+        Thread.sleep(100);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
 }
@@ -28,6 +28,10 @@ import org.apache.log4j.Logger;
 import org.testng.AssertJUnit;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public class ParseDoubleFunctionExtensionTestCase {
     protected static SiddhiManager siddhiManager;
     private static Logger logger = Logger.getLogger(ParseDoubleFunctionExtensionTestCase.class);
@@ -64,4 +68,81 @@ public class ParseDoubleFunctionExtensionTestCase {
         Thread.sleep(100);
         siddhiAppRuntime.shutdown();
     }
+
+    @Test
+    public void testProcessOnErrorNan() throws Exception {
+        logger.info("ParseDoubleFunctionExtension TestCase with the nan on.error policy");
+
+        siddhiManager = new SiddhiManager();
+        String inValueStream = "define stream InValueStream (inValue string);";
+
+        String eventFuseExecutionPlan = ("@info(name = 'query1') from InValueStream "
+                + "select math:parseDouble(inValue, 'nan') as output "
+                + "insert into OutMediationStream;");
+        SiddhiAppRuntime siddhiAppRuntime =
+                siddhiManager.createSiddhiAppRuntime(inValueStream + eventFuseExecutionPlan);
+
+        List<Object> results = new ArrayList<>();
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents,
+                                Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event event : inEvents) {
+                    results.add(event.getData(0));
+                }
+            }
+        });
+        InputHandler inputHandler = siddhiAppRuntime
+                .getInputHandler("InValueStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{"1.5e3"});
+        inputHandler.send(new Object[]{"1.5e"});
+        inputHandler.send(new Object[]{" -0x1p2 "});
+        Thread.sleep(100);
+        AssertJUnit.assertEquals(Arrays.asList(1500.0, Double.NaN, -4.0), results);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void testProcessMatchesJdk() throws Exception {
+        logger.info("ParseDoubleFunctionExtension TestCase comparing results with the JDK");
+
+        siddhiManager = new SiddhiManager();
+        String inValueStream = "define stream InValueStream (inValue string);";
+
+        String eventFuseExecutionPlan = ("@info(name = 'query1') from InValueStream "
+                + "select math:parseDouble(inValue) as output "
+                + "insert into OutMediationStream;");
+        SiddhiAppRuntime siddhiAppRuntime =
+                siddhiManager.createSiddhiAppRuntime(inValueStream + eventFuseExecutionPlan);
+
+        List<Object> results = new ArrayList<>();
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents,
+                                Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event event : inEvents) {
+                    results.add(event.getData(0));
+                }
+            }
+        });
+        InputHandler inputHandler = siddhiAppRuntime
+                .getInputHandler("InValueStream");
+        siddhiAppRuntime.start();
+        // both within and outside the exact fast path
+        String[] values = {"0.1", " -12.375 ", "16777217", "9007199254740993", "1e22", "1e23", "3.4e-5f",
+                "123456789e-30", "-0", "0x1.8p1", "Infinity",
+                // an exponent beyond the fast path, balanced by leading zeros
+                "0." + new String(new char[1230]).replace('\0', '0') + "1e12345"};
+        List<Object> expected = new ArrayList<>();
+        for (String value : values) {
+            inputHandler.send(new Object[]{value});
+            expected.add(Double.parseDouble(value));
+        }
+        Thread.sleep(100);
+        AssertJUnit.assertEquals(expected, results);
+        siddhiAppRuntime.shutdown();
+    }
 }
@@ -21,14 +21,20 @@ package io.siddhi.extension.execution.math;
 import io.siddhi.core.SiddhiAppRuntime;
 import io.siddhi.core.SiddhiManager;
 import io.siddhi.core.event.Event;
+import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.query.output.callback.QueryCallback;
 import io.siddhi.core.stream.input.InputHandler;
 import io.siddhi.core.util.EventPrinter;
+import io.siddhi.core.util.config.InMemoryConfigManager;
+import io.siddhi.core.util.persistence.InMemoryPersistenceStore;
+import io.siddhi.core.util.persistence.IncrementalFileSystemPersistenceStore;
 import org.apache.log4j.Logger;
 import org.testng.AssertJUnit;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -913,4 +919,778 @@ public class PercentileFunctionExtensionTestCase {
         AssertJUnit.assertTrue(eventArrived);
         siddhiAppRuntime.shutdown();
     }
+
+    @Test
+    public void testPercentileFunctionExtensionGroupBy() throws Exception {
+        logger.info("PercentileFunctionExtension group by test case.");
+
+        final int expectedNoOfEvents = 5;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        siddhiManager = new SiddhiManager();
+
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select sensorId, math:percentile(temperature, 50.0) as percentile "
+                + "group by sensorId "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager
+                .createSiddhiAppRuntime(INPUT_STREAM_DOUBLE + executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    switch (count) {
+                        case 1:
+                            AssertJUnit.assertEquals(10.0, event.getData(1));
+                            break;
+                        case 2:
+                            AssertJUnit.assertEquals(100.0, event.getData(1));
+                            break;
+                        case 3:
+                            AssertJUnit.assertEquals(20.0, event.getData(1));
+                            break;
+                        case 4:
+                            AssertJUnit.assertEquals(200.0, event.getData(1));
+                            break;
+                        case 5:
+                            AssertJUnit.assertEquals(20.0, event.getData(1));
+                            break;
+                        default:
+                            AssertJUnit.fail();
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{1, 10d});
+        inputHandler.send(new Object[]{2, 100d});
+        inputHandler.send(new Object[]{1, 30d});
+        inputHandler.send(new Object[]{2, 300d});
+        inputHandler.send(new Object[]{1, 20d});
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(5, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void testPercentileFunctionExtensionTDigest() throws Exception {
+        logger.info("PercentileFunctionExtension t-digest test case.");
+
+        final int expectedNoOfEvents = 1000;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        siddhiManager = new SiddhiManager();
+
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:percentile(temperature, 99.0, 'tdigest', 100.0) as percentile "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager
+                .createSiddhiAppRuntime(INPUT_STREAM_DOUBLE + executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    if (count == expectedNoOfEvents) {
+                        AssertJUnit.assertEquals(990.5, (Double) event.getData(0), 1.0);
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        for (int i = 1; i <= expectedNoOfEvents; i++) {
+            inputHandler.send(new Object[]{i, (double) i});
+        }
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(expectedNoOfEvents, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void exceptionTestCase1() throws Exception {
+        logger.info("PercentileFunctionExtension exceptionTestCase1");
+
+        siddhiManager = new SiddhiManager();
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:percentile(temperature, 99.0, 'unknown') as percentile "
+                + "insert into outputStream;");
+        siddhiManager.createSiddhiAppRuntime(INPUT_STREAM_DOUBLE + executionPlan);
+    }
+
+    @Test
+    public void testPercentileFunctionExtensionHdr() throws Exception {
+        logger.info("PercentileFunctionExtension HDR histogram length window test case.");
+
+        final int expectedNoOfEvents = 10;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        siddhiManager = new SiddhiManager();
+
+        String executionPlan = ("@info(name = 'query1') from inputStream#window.length(5) "
+                + "select math:percentile(temperature, 97.0, 'hdr', 3) as percentile "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager
+                .createSiddhiAppRuntime(INPUT_STREAM_LONG + executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    switch (count) {
+                        case 1:
+                            AssertJUnit.assertEquals(10.0, event.getData(0));
+                            break;
+                        case 2:
+                            AssertJUnit.assertEquals(30.0, event.getData(0));
+                            break;
+                        case 3:
+                        case 4:
+                        case 5:
+                        case 6:
+                        case 7:
+                            AssertJUnit.assertEquals(100.0, event.getData(0));
+                            break;
+                        case 8:
+                        case 9:
+                        case 10:
+                            AssertJUnit.assertEquals(90.0, event.getData(0));
+                            break;
+                        default:
+                            AssertJUnit.fail();
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{1, 10L});
+        inputHandler.send(new Object[]{2, 30L});
+        inputHandler.send(new Object[]{3, 100L});
+        inputHandler.send(new Object[]{4, 40L});
+        inputHandler.send(new Object[]{5, 80L});
+        inputHandler.send(new Object[]{6, 60L});
+        inputHandler.send(new Object[]{7, 20L});
+        inputHandler.send(new Object[]{8, 90L});
+        inputHandler.send(new Object[]{9, 70L});
+        inputHandler.send(new Object[]{10, 50L});
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(10, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void exceptionTestCase2() throws Exception {
+        logger.info("PercentileFunctionExtension exceptionTestCase2");
+
+        siddhiManager = new SiddhiManager();
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:percentile(temperature, 99.0, 'hdr') as percentile "
+                + "insert into outputStream;");
+        siddhiManager.createSiddhiAppRuntime(INPUT_STREAM_DOUBLE + executionPlan);
+    }
+
+    @Test
+    public void testPercentileFunctionExtensionGK() throws Exception {
+        logger.info("PercentileFunctionExtension Greenwald-Khanna test case.");
+
+        final int expectedNoOfEvents = 1000;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        Map<String, String> masterConfigs = new HashMap<>();
+        masterConfigs.put("math.percentile.algorithm", "gk");
+        masterConfigs.put("math.percentile.gk.epsilon", "0.01");
+        siddhiManager = new SiddhiManager();
+        siddhiManager.setConfigManager(new InMemoryConfigManager(masterConfigs, null));
+
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:percentile(temperature, 99.0, true) as percentile "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager
+                .createSiddhiAppRuntime(INPUT_STREAM_DOUBLE + executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    if (count == expectedNoOfEvents) {
+                        double[] result = (double[]) event.getData(0);
+                        // the rank of the result is within 0.01 * 1000 of the rank of the 99th percentile
+                        AssertJUnit.assertEquals(990.0, result[0], 10.0);
+                        AssertJUnit.assertEquals(0.01, result[1]);
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        for (int i = 1; i <= expectedNoOfEvents; i++) {
+            inputHandler.send(new Object[]{i, (double) i});
+        }
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(expectedNoOfEvents, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void exceptionTestCase3() throws Exception {
+        logger.info("PercentileFunctionExtension exceptionTestCase3");
+
+        siddhiManager = new SiddhiManager();
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:percentile(temperature, 99.0, 'gk', 1.5) as percentile "
+                + "insert into outputStream;");
+        siddhiManager.createSiddhiAppRuntime(INPUT_STREAM_DOUBLE + executionPlan);
+    }
+
+    @Test
+    public void testPercentileFunctionExtensionLazy() throws Exception {
+        logger.info("PercentileFunctionExtension lazy length batch window test case.");
+
+        final int expectedNoOfEvents = 2;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        siddhiManager = new SiddhiManager();
+
+        String executionPlan = ("@info(name = 'query1') from inputStream#window.lengthBatch(5) "
+                + "select math:percentile(temperature, 97.0, 'lazy') as percentile "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager
+                .createSiddhiAppRuntime(INPUT_STREAM_DOUBLE + executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    switch (count) {
+                        case 1:
+                            AssertJUnit.assertEquals(80.0, event.getData(0));
+                            break;
+                        case 2:
+                            AssertJUnit.assertEquals(100.0, event.getData(0));
+                            break;
+                        default:
+                            AssertJUnit.fail();
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{1, 10d});
+        inputHandler.send(new Object[]{2, 30d});
+        inputHandler.send(new Object[]{3, 50d});
+        inputHandler.send(new Object[]{4, 40d});
+        inputHandler.send(new Object[]{5, 80d});
+        inputHandler.send(new Object[]{6, 60d});
+        inputHandler.send(new Object[]{7, 20d});
+        inputHandler.send(new Object[]{8, 90d});
+        inputHandler.send(new Object[]{9, 70d});
+        inputHandler.send(new Object[]{10, 100d});
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(2, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void testPercentileFunctionExtensionFrequency() throws Exception {
+        logger.info("PercentileFunctionExtension frequency length window test case.");
+
+        final int expectedNoOfEvents = 8;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        siddhiManager = new SiddhiManager();
+
+        String executionPlan = ("@info(name = 'query1') from inputStream#window.length(4) "
+                + "select math:percentile(temperature, 50.0, 'frequency') as percentile "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager
+                .createSiddhiAppRuntime(INPUT_STREAM_INT + executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    switch (count) {
+                        case 1:
+                        case 2:
+                        case 3:
+                        case 4:
+                            AssertJUnit.assertEquals(200.0, event.getData(0));
+                            break;
+                        case 5:
+                            AssertJUnit.assertEquals(302.0, event.getData(0));
+                            break;
+                        case 6:
+                        case 7:
+                        case 8:
+                            AssertJUnit.assertEquals(404.0, event.getData(0));
+                            break;
+                        default:
+                            AssertJUnit.fail();
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{1, 200});
+        inputHandler.send(new Object[]{2, 200});
+        inputHandler.send(new Object[]{3, 404});
+        inputHandler.send(new Object[]{4, 200});
+        inputHandler.send(new Object[]{5, 404});
+        inputHandler.send(new Object[]{6, 404});
+        inputHandler.send(new Object[]{7, 500});
+        inputHandler.send(new Object[]{8, 404});
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(8, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void testPercentileFunctionExtensionPersistence() throws Exception {
+        logger.info("PercentileFunctionExtension persistence test case.");
+
+        final int expectedNoOfEvents = 6;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        siddhiManager = new SiddhiManager();
+        siddhiManager.setPersistenceStore(new InMemoryPersistenceStore());
+
+        String executionPlan = ("@app:name('PercentilePersistence') "
+                + "@info(name = 'query1') from inputStream#window.length(4) "
+                + "select math:percentile(temperature, 50.0) as percentile "
+                + "insert into outputStream;");
+        QueryCallback queryCallback = new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    switch (count) {
+                        case 1:
+                        case 2:
+                        case 3:
+                        case 4:
+                            AssertJUnit.assertEquals(200.0, event.getData(0));
+                            break;
+                        case 5:
+                            AssertJUnit.assertEquals(302.0, event.getData(0));
+                            break;
+                        case 6:
+                            AssertJUnit.assertEquals(404.0, event.getData(0));
+                            break;
+                        default:
+                            AssertJUnit.fail();
+                    }
+                }
+            }
+        };
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager
+                .createSiddhiAppRuntime(INPUT_STREAM_INT + executionPlan);
+        siddhiAppRuntime.addCallback("query1", queryCallback);
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{1, 200});
+        inputHandler.send(new Object[]{2, 200});
+        inputHandler.send(new Object[]{3, 404});
+        inputHandler.send(new Object[]{4, 200});
+        siddhiAppRuntime.persist();
+        siddhiAppRuntime.shutdown();
+
+        siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(INPUT_STREAM_INT + executionPlan);
+        siddhiAppRuntime.addCallback("query1", queryCallback);
+        inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+        siddhiAppRuntime.restoreLastRevision();
+
+        inputHandler.send(new Object[]{5, 404});
+        inputHandler.send(new Object[]{6, 404});
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(6, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void testPercentileFunctionExtensionIncrementalPersistence() throws Exception {
+        logger.info("PercentileFunctionExtension incremental persistence test case.");
+
+        final int expectedNoOfEvents = 6;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        siddhiManager = new SiddhiManager();
+        siddhiManager.setIncrementalPersistenceStore(
+                new IncrementalFileSystemPersistenceStore("./target/percentile-snapshots/"));
+
+        String executionPlan = ("@app:name('PercentileIncrementalPersistence') "
+                + "@info(name = 'query1') from inputStream#window.length(4) "
+                + "select math:percentile(temperature, 50.0) as percentile "
+                + "insert into outputStream;");
+        QueryCallback queryCallback = new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    switch (count) {
+                        case 1:
+                        case 2:
+                        case 3:
+                        case 4:
+                            AssertJUnit.assertEquals(200.0, event.getData(0));
+                            break;
+                        case 5:
+                            AssertJUnit.assertEquals(302.0, event.getData(0));
+                            break;
+                        case 6:
+                            AssertJUnit.assertEquals(404.0, event.getData(0));
+                            break;
+                        default:
+                            AssertJUnit.fail();
+                    }
+                }
+            }
+        };
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager
+                .createSiddhiAppRuntime(INPUT_STREAM_INT + executionPlan);
+        siddhiAppRuntime.addCallback("query1", queryCallback);
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{1, 200});
+        inputHandler.send(new Object[]{2, 200});
+        inputHandler.send(new Object[]{3, 404});
+        inputHandler.send(new Object[]{4, 200});
+        siddhiAppRuntime.persist();
+        Thread.sleep(100);
+        inputHandler.send(new Object[]{5, 404});
+        siddhiAppRuntime.persist();
+        Thread.sleep(100);
+        siddhiAppRuntime.shutdown();
+
+        siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(INPUT_STREAM_INT + executionPlan);
+        siddhiAppRuntime.addCallback("query1", queryCallback);
+        inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+        siddhiAppRuntime.restoreLastRevision();
+
+        inputHandler.send(new Object[]{6, 404});
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(6, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void testPercentileFunctionExtensionAuto() throws Exception {
+        logger.info("PercentileFunctionExtension auto test case.");
+
+        final int expectedNoOfEvents = 4;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        siddhiManager = new SiddhiManager();
+
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:percentile(temperature, 50.0, 'auto', 3, true) as percentile "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager
+                .createSiddhiAppRuntime(INPUT_STREAM_INT + executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    double[] result = (double[]) event.getData(0);
+                    switch (count) {
+                        case 1:
+                            AssertJUnit.assertEquals(10.0, result[0]);
+                            AssertJUnit.assertEquals(0.0, result[1]);
+                            break;
+                        case 2:
+                            AssertJUnit.assertEquals(15.0, result[0]);
+                            AssertJUnit.assertEquals(0.0, result[1]);
+                            break;
+                        case 3:
+                            AssertJUnit.assertEquals(20.0, result[0]);
+                            AssertJUnit.assertEquals(0.0, result[1]);
+                            break;
+                        case 4:
+                            AssertJUnit.assertTrue(result[0] >= 20.0 && result[0] <= 30.0);
+                            AssertJUnit.assertTrue(Double.isNaN(result[1]));
+                            break;
+                        default:
+                            AssertJUnit.fail();
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{1, 10});
+        inputHandler.send(new Object[]{2, 20});
+        inputHandler.send(new Object[]{3, 30});
+        inputHandler.send(new Object[]{4, 40});
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(4, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void testPercentileFunctionExtensionOffHeap() throws Exception {
+        logger.info("PercentileFunctionExtension off-heap length window test case.");
+
+        final int expectedNoOfEvents = 5;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        siddhiManager = new SiddhiManager();
+
+        String executionPlan = ("@info(name = 'query1') from inputStream#window.length(3) "
+                + "select math:percentile(temperature, 50.0, 'offheap') as percentile "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager
+                .createSiddhiAppRuntime(INPUT_STREAM_DOUBLE + executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    switch (count) {
+                        case 1:
+                            AssertJUnit.assertEquals(10.0, event.getData(0));
+                            break;
+                        case 2:
+                        case 3:
+                            AssertJUnit.assertEquals(20.0, event.getData(0));
+                            break;
+                        case 4:
+                            AssertJUnit.assertEquals(30.0, event.getData(0));
+                            break;
+                        case 5:
+                            AssertJUnit.assertEquals(40.0, event.getData(0));
+                            break;
+                        default:
+                            AssertJUnit.fail();
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{1, 10d});
+        inputHandler.send(new Object[]{2, 30d});
+        inputHandler.send(new Object[]{3, 20d});
+        inputHandler.send(new Object[]{4, 50d});
+        inputHandler.send(new Object[]{5, 40d});
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(5, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void testPercentileFunctionExtensionP2() throws Exception {
+        logger.info("PercentileFunctionExtension P-square test case.");
+
+        final int expectedNoOfEvents = 6;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        siddhiManager = new SiddhiManager();
+
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:percentile(temperature, 50.0, 'p2', true) as percentile "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager
+                .createSiddhiAppRuntime(INPUT_STREAM_DOUBLE + executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    double[] result = (double[]) event.getData(0);
+                    AssertJUnit.assertTrue(Double.isNaN(result[1]));
+                    switch (count) {
+                        case 1:
+                        case 2:
+                            AssertJUnit.assertEquals(10.0, result[0]);
+                            break;
+                        case 3:
+                        case 4:
+                            AssertJUnit.assertEquals(20.0, result[0]);
+                            break;
+                        case 5:
+                            AssertJUnit.assertEquals(30.0, result[0]);
+                            break;
+                        case 6:
+                            AssertJUnit.assertTrue(result[0] >= 30.0 && result[0] <= 40.0);
+                            break;
+                        default:
+                            AssertJUnit.fail();
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{1, 10d});
+        inputHandler.send(new Object[]{2, 20d});
+        inputHandler.send(new Object[]{3, 30d});
+        inputHandler.send(new Object[]{4, 40d});
+        inputHandler.send(new Object[]{5, 50d});
+        inputHandler.send(new Object[]{6, 60d});
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(6, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void testPercentileFunctionExtensionInterpolation() throws Exception {
+        logger.info("PercentileFunctionExtension interpolation methods test case.");
+
+        countDownLatch = new CountDownLatch(1);
+        siddhiManager = new SiddhiManager();
+
+        String executionPlan = ("@info(name = 'query1') from inputStream#window.lengthBatch(5) "
+                + "select math:percentile(temperature, 40.0, 'exact', 'nearest.rank') as nearestRank, "
+                + "math:percentile(temperature, 40.0, 'exact', 'linear') as linear, "
+                + "math:percentile(temperature, 40.0, 'lazy', 'lower') as lower, "
+                + "math:percentile(temperature, 40.0, 'frequency', 'higher') as higher, "
+                + "math:percentile(temperature, 40.0, 'offheap', 'midpoint') as midpoint "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager
+                .createSiddhiAppRuntime(INPUT_STREAM_DOUBLE + executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    AssertJUnit.assertEquals(20.0, event.getData(0));
+                    AssertJUnit.assertEquals(29.0, event.getData(1));
+                    AssertJUnit.assertEquals(20.0, event.getData(2));
+                    AssertJUnit.assertEquals(35.0, event.getData(3));
+                    AssertJUnit.assertEquals(27.5, event.getData(4));
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{1, 40d});
+        inputHandler.send(new Object[]{2, 15d});
+        inputHandler.send(new Object[]{3, 50d});
+        inputHandler.send(new Object[]{4, 20d});
+        inputHandler.send(new Object[]{5, 35d});
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(1, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void exceptionTestCase4() throws Exception {
+        logger.info("PercentileFunctionExtension exceptionTestCase4");
+
+        siddhiManager = new SiddhiManager();
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:percentile(temperature, 99.0, 'tdigest', 'linear') as percentile "
+                + "insert into outputStream;");
+        siddhiManager.createSiddhiAppRuntime(INPUT_STREAM_DOUBLE + executionPlan);
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void exceptionTestCase5() throws Exception {
+        logger.info("PercentileFunctionExtension exceptionTestCase5");
+
+        siddhiManager = new SiddhiManager();
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:percentile(temperature, 99.0, 'exact', 'nearest') as percentile "
+                + "insert into outputStream;");
+        siddhiManager.createSiddhiAppRuntime(INPUT_STREAM_DOUBLE + executionPlan);
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void exceptionTestCase6() throws Exception {
+        logger.info("PercentileFunctionExtension exceptionTestCase6");
+
+        siddhiManager = new SiddhiManager();
+        String executionPlan = ("@info(name = 'query1') from inputStream#window.lengthBatch(5) "
+                + "select math:percentile(temperature, 97.0, 'lazy', 2) as percentile "
+                + "insert into outputStream;");
+        siddhiManager.createSiddhiAppRuntime(INPUT_STREAM_DOUBLE + executionPlan);
+    }
 }
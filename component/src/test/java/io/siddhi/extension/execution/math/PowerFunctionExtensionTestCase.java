@@ -274,4 +274,80 @@ public class PowerFunctionExtensionTestCase {
         Thread.sleep(100);
         siddhiAppRuntime.shutdown();
     }
+
+    @Test
+    public void testProcessConstantExponent() throws Exception {
+        logger.info("PowerFunctionExtension testProcessConstantExponent");
+
+        siddhiManager = new SiddhiManager();
+        String inValueStream = "define stream InValueStream (inValue1 double, inValue2 double);";
+
+        String eventFuseExecutionPlan = ("@info(name = 'query1') from InValueStream "
+                                         + "select math:power(inValue1, 2) as squareValue, "
+                                         + "math:power(inValue1, 3.0) as cubeValue, math:power(3, 4) as constantValue "
+                                         + "insert into OutMediationStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inValueStream +
+                                                                                             eventFuseExecutionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents,
+                                Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event event : inEvents) {
+                    AssertJUnit.assertEquals((Double) 31.359999999999996, event.getData(0));
+                    AssertJUnit.assertEquals((Double) 175.61599999999996, event.getData(1));
+                    AssertJUnit.assertEquals((Double) 81.0, event.getData(2));
+                }
+            }
+        });
+        InputHandler inputHandler = siddhiAppRuntime
+                .getInputHandler("InValueStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Double[]{5.6d, 3.0d});
+        Thread.sleep(100);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void testProcessMixedTypes() throws Exception {
+        logger.info("PowerFunctionExtension testProcessMixedTypes");
+
+        siddhiManager = new SiddhiManager();
+        String inValueStream = "define stream InValueStream (intValue int, longValue long, floatValue float, "
+                + "doubleValue double);";
+
+        String eventFuseExecutionPlan = ("@info(name = 'query1') from InValueStream "
+                                         + "select math:power(intValue,intValue) as intPower, "
+                                         + "math:power(longValue,longValue) as longPower, "
+                                         + "math:power(floatValue,floatValue) as floatPower, "
+                                         + "math:power(doubleValue,doubleValue) as doublePower, "
+                                         + "math:power(intValue,doubleValue) as intDoublePower, "
+                                         + "math:power(floatValue,longValue) as floatLongPower "
+                                         + "insert into OutMediationStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inValueStream +
+                                                                                             eventFuseExecutionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents,
+                                Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event event : inEvents) {
+                    eventArrived = true;
+                    // An argument of any numeric type converts to the same double.
+                    for (int i = 0; i < 6; i++) {
+                        AssertJUnit.assertEquals((Double) 46656.0, event.getData(i));
+                    }
+                }
+            }
+        });
+        InputHandler inputHandler = siddhiAppRuntime
+                .getInputHandler("InValueStream");
+        siddhiAppRuntime.start();
+        inputHandler.send(new Object[]{6, 6L, 6f, 6d});
+        Thread.sleep(100);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.math;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.query.output.callback.QueryCallback;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.util.EventPrinter;
+import io.siddhi.extension.execution.math.util.MathUtil;
+import io.siddhi.extension.execution.math.util.TDigest;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+public class SketchFunctionExtensionTestCase {
+    private static final String INPUT_STREAM_DOUBLE = "define stream inputStream (sensorId int, temperature double);";
+    protected static SiddhiManager siddhiManager;
+    private static Logger logger = Logger.getLogger(SketchFunctionExtensionTestCase.class);
+    private CountDownLatch countDownLatch;
+    private volatile int count;
+    private volatile boolean eventArrived;
+
+    @BeforeMethod
+    public void init() {
+        count = 0;
+        eventArrived = false;
+    }
+
+    @Test
+    public void testSketchFunctionExtension() throws Exception {
+        logger.info("SketchFunctionExtension TestCase, returning the sketch as a string.");
+
+        final int expectedNoOfEvents = 5;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        siddhiManager = new SiddhiManager();
+
+        String executionPlan = (INPUT_STREAM_DOUBLE + "@info(name = 'query1') from inputStream#window.length(3) "
+                + "select math:sketch(temperature, 100.0, true) as sketch "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    AssertJUnit.assertTrue(event.getData(0) instanceof String);
+                    TDigest digest = MathUtil.decodeSketch(event.getData(0));
+                    AssertJUnit.assertEquals((double) Math.min(count, 3), digest.size());
+                    switch (count) {
+                        case 1:
+                            AssertJUnit.assertEquals(10.0, digest.quantile(1.0));
+                            break;
+                        case 2:
+                        case 3:
+                            AssertJUnit.assertEquals(10.0, digest.quantile(0.0));
+                            break;
+                        case 4:
+                        case 5:
+                            AssertJUnit.assertEquals(50.0, digest.quantile(1.0));
+                            break;
+                        default:
+                            AssertJUnit.fail();
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{1, 10d});
+        inputHandler.send(new Object[]{2, 30d});
+        inputHandler.send(new Object[]{3, 20d});
+        inputHandler.send(new Object[]{4, 50d});
+        inputHandler.send(new Object[]{5, 40d});
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(expectedNoOfEvents, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void testSketchFunctionExtensionAsBytes() throws Exception {
+        logger.info("SketchFunctionExtension TestCase, returning the sketch as bytes.");
+
+        countDownLatch = new CountDownLatch(1);
+        siddhiManager = new SiddhiManager();
+
+        String executionPlan = (INPUT_STREAM_DOUBLE + "@info(name = 'query1') from inputStream#window.lengthBatch(4) "
+                + "select math:sketch(temperature) as sketch "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    AssertJUnit.assertTrue(event.getData(0) instanceof byte[]);
+                    TDigest digest = MathUtil.decodeSketch(event.getData(0));
+                    AssertJUnit.assertEquals(4.0, digest.size());
+                    AssertJUnit.assertEquals(40.0, digest.quantile(1.0));
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{1, 10d});
+        inputHandler.send(new Object[]{2, 20d});
+        inputHandler.send(new Object[]{3, 30d});
+        inputHandler.send(new Object[]{4, 40d});
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(1, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = {SiddhiAppCreationException.class})
+    public void exceptionTestCase1() throws Exception {
+        logger.info("SketchFunctionExtension exception test case for an invalid attribute type.");
+        siddhiManager = new SiddhiManager();
+        String inStreamDefinition = "define stream inputStream (sensorId int, temperature string);";
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:sketch(temperature) as sketch "
+                + "insert into outputStream;");
+        siddhiManager.createSiddhiAppRuntime(inStreamDefinition + executionPlan);
+    }
+
+    @Test(expectedExceptions = {SiddhiAppCreationException.class})
+    public void exceptionTestCase2() throws Exception {
+        logger.info("SketchFunctionExtension exception test case for a non constant compression.");
+        siddhiManager = new SiddhiManager();
+        String inStreamDefinition = "define stream inputStream (sensorId int, temperature double, "
+                + "compression double);";
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:sketch(temperature, compression) as sketch "
+                + "insert into outputStream;");
+        siddhiManager.createSiddhiAppRuntime(inStreamDefinition + executionPlan);
+    }
+
+    @Test(expectedExceptions = {SiddhiAppCreationException.class})
+    public void exceptionTestCase3() throws Exception {
+        logger.info("SketchFunctionExtension exception test case for a compression above the maximum.");
+        siddhiManager = new SiddhiManager();
+        String inStreamDefinition = "define stream inputStream (sensorId int, temperature double);";
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:sketch(temperature, 1.0E9) as sketch "
+                + "insert into outputStream;");
+        siddhiManager.createSiddhiAppRuntime(inStreamDefinition + executionPlan);
+    }
+
+    @Test
+    public void testSketchFunctionExtensionManyValues() throws Exception {
+        logger.info("SketchFunctionExtension TestCase, reading the sketch of a large window after every value.");
+
+        final int expectedNoOfEvents = 20000;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        siddhiManager = new SiddhiManager();
+
+        String executionPlan = (INPUT_STREAM_DOUBLE + "@info(name = 'query1') from inputStream#window.length(5000) "
+                + "select math:sketchQuantile(math:sketch(temperature, 100.0, true), 99.0) as p99 "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    if (count == expectedNoOfEvents) {
+                        // The window holds 15000 to 19999 in some order, of which 19949.5 is the 99th percentile.
+                        AssertJUnit.assertEquals(19949.5, (Double) event.getData(0), 10.0);
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        for (int i = 0; i < expectedNoOfEvents; i += 5000) {
+            for (int j = 0; j < 5000; j++) {
+                inputHandler.send(new Object[]{j, (double) (i + j * 1999 % 5000)});
+            }
+        }
+
+        countDownLatch.await(10000, MILLISECONDS);
+        AssertJUnit.assertEquals(expectedNoOfEvents, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.math;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.query.output.callback.QueryCallback;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.util.EventPrinter;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+public class SketchMergeFunctionExtensionTestCase {
+    private static final String INPUT_STREAM_DOUBLE = "define stream inputStream (sensorId int, temperature double);";
+    protected static SiddhiManager siddhiManager;
+    private static Logger logger = Logger.getLogger(SketchMergeFunctionExtensionTestCase.class);
+    private CountDownLatch countDownLatch;
+    private volatile int count;
+    private volatile boolean eventArrived;
+
+    @BeforeMethod
+    public void init() {
+        count = 0;
+        eventArrived = false;
+    }
+
+    @Test
+    public void testSketchMergeFunctionExtension() throws Exception {
+        logger.info("SketchMergeFunctionExtension TestCase, merging the sketches of consecutive batches.");
+
+        final int expectedNoOfEvents = 3;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        siddhiManager = new SiddhiManager();
+
+        // Sketches of batches of two events, of which the last two are merged.
+        String executionPlan = (INPUT_STREAM_DOUBLE
+                + "from inputStream#window.lengthBatch(2) "
+                + "select math:sketch(temperature, 100.0, true) as sketch "
+                + "insert into sketchStream; "
+                + "@info(name = 'query1') from sketchStream#window.length(2) "
+                + "select math:sketchQuantile(math:sketchMerge(sketch), 100.0) as max, "
+                + "math:sketchQuantile(math:sketchMerge(sketch), 1.0) as min "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    switch (count) {
+                        case 1:
+                            AssertJUnit.assertEquals(20.0, event.getData(0));
+                            AssertJUnit.assertEquals(10.0, event.getData(1));
+                            break;
+                        case 2:
+                            AssertJUnit.assertEquals(40.0, event.getData(0));
+                            AssertJUnit.assertEquals(10.0, event.getData(1));
+                            break;
+                        case 3:
+                            // The first batch has left the window.
+                            AssertJUnit.assertEquals(60.0, event.getData(0));
+                            AssertJUnit.assertEquals(30.0, event.getData(1));
+                            break;
+                        default:
+                            AssertJUnit.fail();
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{1, 10d});
+        inputHandler.send(new Object[]{2, 20d});
+        inputHandler.send(new Object[]{3, 30d});
+        inputHandler.send(new Object[]{4, 40d});
+        inputHandler.send(new Object[]{5, 50d});
+        inputHandler.send(new Object[]{6, 60d});
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(expectedNoOfEvents, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = {SiddhiAppCreationException.class})
+    public void exceptionTestCase1() throws Exception {
+        logger.info("SketchMergeFunctionExtension exception test case for an invalid attribute type.");
+        siddhiManager = new SiddhiManager();
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:sketchMerge(temperature) as sketch "
+                + "insert into outputStream;");
+        siddhiManager.createSiddhiAppRuntime(INPUT_STREAM_DOUBLE + executionPlan);
+    }
+
+    @Test(expectedExceptions = {SiddhiAppCreationException.class})
+    public void exceptionTestCase2() throws Exception {
+        logger.info("SketchMergeFunctionExtension exception test case for an invalid number of arguments.");
+        siddhiManager = new SiddhiManager();
+        String inStreamDefinition = "define stream inputStream (sensorId int, sketch string);";
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:sketchMerge(sketch, 100.0) as sketch "
+                + "insert into outputStream;");
+        siddhiManager.createSiddhiAppRuntime(inStreamDefinition + executionPlan);
+    }
+
+    @Test
+    public void testSketchMergeFunctionExtensionWithoutWindow() throws Exception {
+        logger.info("SketchMergeFunctionExtension TestCase, merging every sketch received.");
+
+        final int expectedNoOfEvents = 100;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        siddhiManager = new SiddhiManager();
+
+        // Sketches of batches of a hundred events, all of which are merged.
+        String executionPlan = (INPUT_STREAM_DOUBLE
+                + "from inputStream#window.lengthBatch(100) "
+                + "select math:sketch(temperature) as sketch "
+                + "insert into sketchStream; "
+                + "@info(name = 'query1') from sketchStream "
+                + "select math:sketchQuantile(math:sketchMerge(sketch), 50.0) as median, "
+                + "math:sketchQuantile(math:sketchMerge(sketch), 100.0) as max "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    AssertJUnit.assertEquals(100.0 * count - 1, event.getData(1));
+                    if (count == expectedNoOfEvents) {
+                        AssertJUnit.assertEquals(4999.5, (Double) event.getData(0), 50.0);
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        for (int i = 0; i < 100 * expectedNoOfEvents; i++) {
+            inputHandler.send(new Object[]{i, (double) i});
+        }
+
+        countDownLatch.await(10000, MILLISECONDS);
+        AssertJUnit.assertEquals(expectedNoOfEvents, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+}
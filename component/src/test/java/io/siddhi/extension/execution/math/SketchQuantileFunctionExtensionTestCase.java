@@ -0,0 +1,133 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.math;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.query.output.callback.QueryCallback;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.util.EventPrinter;
+import io.siddhi.extension.execution.math.util.MathUtil;
+import io.siddhi.extension.execution.math.util.TDigest;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+public class SketchQuantileFunctionExtensionTestCase {
+    protected static SiddhiManager siddhiManager;
+    private static Logger logger = Logger.getLogger(SketchQuantileFunctionExtensionTestCase.class);
+    private CountDownLatch countDownLatch;
+    private volatile int count;
+    private volatile boolean eventArrived;
+
+    @BeforeMethod
+    public void init() {
+        count = 0;
+        eventArrived = false;
+    }
+
+    @Test
+    public void testSketchQuantileFunctionExtension() throws Exception {
+        logger.info("SketchQuantileFunctionExtension TestCase, reading sketches received as strings.");
+
+        final int expectedNoOfEvents = 3;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        siddhiManager = new SiddhiManager();
+
+        String inStreamDefinition = "define stream inputStream (sketch string, p double);";
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:sketchQuantile(sketch, p) as percentile "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inStreamDefinition
+                + executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    switch (count) {
+                        case 1:
+                            AssertJUnit.assertEquals(30.0, event.getData(0));
+                            break;
+                        case 2:
+                            AssertJUnit.assertEquals(0.0, event.getData(0));
+                            break;
+                        case 3:
+                            AssertJUnit.assertNull(event.getData(0));
+                            break;
+                        default:
+                            AssertJUnit.fail();
+                    }
+                }
+            }
+        });
+
+        TDigest digest = new TDigest(100);
+        digest.add(10);
+        digest.add(20);
+        digest.add(30);
+        String sketch = (String) MathUtil.encodeSketch(digest, true);
+        String emptySketch = (String) MathUtil.encodeSketch(new TDigest(100), true);
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(new Object[]{sketch, 100d});
+        inputHandler.send(new Object[]{emptySketch, 50d});
+        inputHandler.send(new Object[]{null, 50d});
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(expectedNoOfEvents, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = {SiddhiAppCreationException.class})
+    public void exceptionTestCase1() throws Exception {
+        logger.info("SketchQuantileFunctionExtension exception test case for an invalid sketch type.");
+        siddhiManager = new SiddhiManager();
+        String inStreamDefinition = "define stream inputStream (sketch double, p double);";
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:sketchQuantile(sketch, p) as percentile "
+                + "insert into outputStream;");
+        siddhiManager.createSiddhiAppRuntime(inStreamDefinition + executionPlan);
+    }
+
+    @Test(expectedExceptions = {SiddhiAppCreationException.class})
+    public void exceptionTestCase2() throws Exception {
+        logger.info("SketchQuantileFunctionExtension exception test case for an invalid percentile type.");
+        siddhiManager = new SiddhiManager();
+        String inStreamDefinition = "define stream inputStream (sketch string, p string);";
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:sketchQuantile(sketch, p) as percentile "
+                + "insert into outputStream;");
+        siddhiManager.createSiddhiAppRuntime(inStreamDefinition + executionPlan);
+    }
+}
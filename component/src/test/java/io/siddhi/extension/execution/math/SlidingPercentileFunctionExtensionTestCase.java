@@ -0,0 +1,131 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.math;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.query.output.callback.QueryCallback;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.core.util.EventPrinter;
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+public class SlidingPercentileFunctionExtensionTestCase {
+    private static final String INPUT_STREAM_DOUBLE = "define stream inputStream (sensorId int, temperature double);";
+    protected static SiddhiManager siddhiManager;
+    private static Logger logger = Logger.getLogger(SlidingPercentileFunctionExtensionTestCase.class);
+    private CountDownLatch countDownLatch;
+    private volatile int count;
+    private volatile boolean eventArrived;
+
+    @BeforeMethod
+    public void init() {
+        count = 0;
+        eventArrived = false;
+    }
+
+    @Test
+    public void testSlidingPercentileFunctionExtension() throws Exception {
+        logger.info("SlidingPercentileFunctionExtension playback test case.");
+
+        final int expectedNoOfEvents = 5;
+        countDownLatch = new CountDownLatch(expectedNoOfEvents);
+        siddhiManager = new SiddhiManager();
+
+        // Three slices of one second each.
+        String executionPlan = ("@app:playback " + INPUT_STREAM_DOUBLE
+                + "@info(name = 'query1') from inputStream "
+                + "select math:slidingPercentile(temperature, 100.0, 3 sec, 3) as percentile "
+                + "insert into outputStream;");
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(executionPlan);
+
+        siddhiAppRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+                for (Event event : inEvents) {
+                    countDownLatch.countDown();
+                    count++;
+                    switch (count) {
+                        case 1:
+                            AssertJUnit.assertEquals(10.0, event.getData(0));
+                            break;
+                        case 2:
+                            AssertJUnit.assertEquals(20.0, event.getData(0));
+                            break;
+                        case 3:
+                        case 4:
+                            AssertJUnit.assertEquals(30.0, event.getData(0));
+                            break;
+                        case 5:
+                            AssertJUnit.assertEquals(5.0, event.getData(0));
+                            break;
+                        default:
+                            AssertJUnit.fail();
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = siddhiAppRuntime.getInputHandler("inputStream");
+        siddhiAppRuntime.start();
+
+        inputHandler.send(1000, new Object[]{1, 10d});
+        inputHandler.send(1500, new Object[]{2, 20d});
+        inputHandler.send(2000, new Object[]{3, 30d});
+        // The slice starting at 1000 has expired, the one starting at 2000 is still live.
+        inputHandler.send(4500, new Object[]{4, 5d});
+        inputHandler.send(6000, new Object[]{5, 1d});
+
+        countDownLatch.await(1000, MILLISECONDS);
+        AssertJUnit.assertEquals(5, count);
+        AssertJUnit.assertTrue(eventArrived);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = {SiddhiAppCreationException.class})
+    public void exceptionTestCase1() throws Exception {
+        logger.info("SlidingPercentileFunctionExtension exception test case for a non constant window time.");
+        siddhiManager = new SiddhiManager();
+        String inStreamDefinition = "define stream inputStream (sensorId int, temperature double, period long);";
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:slidingPercentile(temperature, 50.0, period) as percentile "
+                + "insert into outputStream;");
+        siddhiManager.createSiddhiAppRuntime(inStreamDefinition + executionPlan);
+    }
+
+    @Test(expectedExceptions = {SiddhiAppCreationException.class})
+    public void exceptionTestCase2() throws Exception {
+        logger.info("SlidingPercentileFunctionExtension exception test case for more slices than milliseconds.");
+        siddhiManager = new SiddhiManager();
+        String executionPlan = ("@info(name = 'query1') from inputStream "
+                + "select math:slidingPercentile(temperature, 50.0, 10, 20) as percentile "
+                + "insert into outputStream;");
+        siddhiManager.createSiddhiAppRuntime(INPUT_STREAM_DOUBLE + executionPlan);
+    }
+}
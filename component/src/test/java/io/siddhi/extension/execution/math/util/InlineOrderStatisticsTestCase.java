@@ -0,0 +1,147 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.math.util;
+
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+public class InlineOrderStatisticsTestCase {
+    private static Logger logger = Logger.getLogger(InlineOrderStatisticsTestCase.class);
+
+    @Test
+    public void testPromotionAndDemotion() {
+        logger.info("InlineOrderStatistics test case growing past 64 keys and shrinking to 16, twice.");
+
+        InlineOrderStatistics values = new InlineOrderStatistics();
+        OrderStatisticTree tree = new OrderStatisticTree();
+        for (int round = 0; round < 2; round++) {
+            // promoted to a tree on the 65th key
+            for (int i = 0; i < 80; i++) {
+                add(values, tree, (i * 37) % 80);
+            }
+            // demoted to an array once 16 keys are left
+            for (int i = 0; i < 75; i++) {
+                remove(values, tree, (i * 37) % 80);
+            }
+        }
+        AssertJUnit.assertEquals(10, values.size());
+    }
+
+    @Test
+    public void testDuplicatesAcrossBoundaries() {
+        logger.info("InlineOrderStatistics test case with duplicate keys around 64 and 16 keys.");
+
+        InlineOrderStatistics values = new InlineOrderStatistics();
+        OrderStatisticTree tree = new OrderStatisticTree();
+        for (int i = 0; i < 63; i++) {
+            add(values, tree, 7);
+        }
+        // the 64th, 65th and 66th keys equal the others, on both sides of the promotion
+        add(values, tree, 7);
+        add(values, tree, 7);
+        add(values, tree, 7);
+        add(values, tree, 3);
+        add(values, tree, 9);
+        for (int i = 0; i < 50; i++) {
+            remove(values, tree, 7);
+        }
+        // 18 keys left, the second removal demotes the tree at 16 keys
+        remove(values, tree, 7);
+        remove(values, tree, 7);
+        remove(values, tree, 7);
+        AssertJUnit.assertFalse(values.remove(8));
+        remove(values, tree, 3);
+        remove(values, tree, 9);
+        for (int i = 0; i < 60; i++) {
+            add(values, tree, 7);
+        }
+        AssertJUnit.assertEquals(73, values.size());
+    }
+
+    @Test
+    public void testRestoreWhilePromoted() throws Exception {
+        logger.info("InlineOrderStatistics test case restoring a snapshot taken while the keys are in a tree.");
+
+        Random random = new Random(42);
+        InlineOrderStatistics values = new InlineOrderStatistics();
+        OrderStatisticTree tree = new OrderStatisticTree();
+        long[] keys = new long[100];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(20);
+            add(values, tree, keys[i]);
+        }
+        values = restore(values);
+        assertSameRanks(values, tree);
+        // demoted after the restore, then promoted again
+        for (int i = 0; i < 90; i++) {
+            remove(values, tree, keys[i]);
+        }
+        values = restore(values);
+        assertSameRanks(values, tree);
+        for (int i = 0; i < 90; i++) {
+            add(values, tree, keys[i]);
+        }
+    }
+
+    private static void add(InlineOrderStatistics values, OrderStatisticTree tree, long key) {
+        values.add(key);
+        tree.add(key);
+        assertSameRanks(values, tree);
+    }
+
+    private static void remove(InlineOrderStatistics values, OrderStatisticTree tree, long key) {
+        AssertJUnit.assertTrue(values.remove(key));
+        AssertJUnit.assertTrue(tree.remove(key));
+        assertSameRanks(values, tree);
+    }
+
+    /**
+     * Compares every rank, and hence every percentile, with the plain tree.
+     */
+    private static void assertSameRanks(InlineOrderStatistics values, OrderStatisticTree tree) {
+        AssertJUnit.assertEquals(tree.size(), values.size());
+        AssertJUnit.assertEquals(tree.isEmpty(), values.isEmpty());
+        for (int i = 0; i < tree.size(); i++) {
+            AssertJUnit.assertEquals(tree.get(i), values.get(i));
+        }
+        for (double percentile : new double[]{1, 50, 90, 99, 100}) {
+            int rank = Math.max((int) Math.ceil(percentile * tree.size() / 100), 1) - 1;
+            if (rank < tree.size()) {
+                AssertJUnit.assertEquals(tree.get(rank), values.get(rank));
+            }
+        }
+    }
+
+    private static InlineOrderStatistics restore(InlineOrderStatistics values) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(values);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (InlineOrderStatistics) in.readObject();
+        }
+    }
+}
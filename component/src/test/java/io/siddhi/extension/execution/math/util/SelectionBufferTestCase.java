@@ -0,0 +1,94 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.math.util;
+
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+public class SelectionBufferTestCase {
+    private static Logger logger = Logger.getLogger(SelectionBufferTestCase.class);
+
+    // A read that rescans or reselects the buffer takes well over ten seconds for these 200000 events.
+    @Test(timeOut = 5000)
+    public void testReadAfterEveryEvent() {
+        logger.info("SelectionBuffer test case reading the 99th percentile ranks after every event.");
+
+        Random random = new Random(42);
+        long[] keys = new long[200000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+        SelectionBuffer buffer = new SelectionBuffer();
+        OrderStatisticTree tree = new OrderStatisticTree();
+        for (int i = 0; i < keys.length; i++) {
+            buffer.add(keys[i]);
+            tree.add(keys[i]);
+            if (i >= 50000) {
+                AssertJUnit.assertTrue(buffer.remove(keys[i - 50000]));
+                tree.remove(keys[i - 50000]);
+            }
+            int rank = (int) (0.99 * (tree.size() - 1));
+            AssertJUnit.assertEquals(tree.get(rank), buffer.get(rank));
+            if (rank + 1 < tree.size()) {
+                AssertJUnit.assertEquals(tree.get(rank + 1), buffer.get(rank + 1));
+            }
+        }
+    }
+
+    @Test
+    public void testReadAnyRankWithDuplicates() throws Exception {
+        logger.info("SelectionBuffer test case reading random ranks of a sliding window of few distinct keys.");
+
+        Random random = new Random(42);
+        SelectionBuffer buffer = new SelectionBuffer();
+        OrderStatisticTree tree = new OrderStatisticTree();
+        long[] keys = new long[20000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(10);
+            buffer.add(keys[i]);
+            tree.add(keys[i]);
+            if (i >= 500) {
+                AssertJUnit.assertTrue(buffer.remove(keys[i - 500]));
+                tree.remove(keys[i - 500]);
+            }
+            if (i % 5000 == 0) {
+                buffer = restore(buffer);
+            }
+            int rank = random.nextInt(tree.size());
+            AssertJUnit.assertEquals(tree.get(rank), buffer.get(rank));
+        }
+    }
+
+    private static SelectionBuffer restore(SelectionBuffer buffer) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(buffer);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (SelectionBuffer) in.readObject();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c)  2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.execution.math.util;
+
+import org.apache.log4j.Logger;
+import org.testng.AssertJUnit;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+public class TDigestTestCase {
+    private static Logger logger = Logger.getLogger(TDigestTestCase.class);
+
+    @Test
+    public void testAddInterleavedWithQuantile() {
+        logger.info("TDigest test case reading a quantile after every value added.");
+
+        Random random = new Random(42);
+        double[] values = new double[50000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian());
+        }
+        TDigest interleaved = new TDigest(100);
+        TDigest batched = new TDigest(100);
+        for (int i = 0; i < values.length; i++) {
+            interleaved.add(values[i]);
+            batched.add(values[i]);
+            double quantile = interleaved.quantile(0.99);
+            if ((i + 1) % 10000 == 0) {
+                AssertJUnit.assertEquals(0.99, rank(Arrays.copyOf(values, i + 1), quantile), 0.002);
+            }
+        }
+        // Reads do not merge the buffer, hence they leave the digest as it was.
+        AssertJUnit.assertTrue(Arrays.equals(batched.toBytes(), interleaved.toBytes()));
+        for (double q : new double[]{0.0, 0.01, 0.25, 0.5, 0.75, 0.99, 1.0}) {
+            AssertJUnit.assertEquals(batched.quantile(q), interleaved.quantile(q));
+        }
+    }
+
+    @Test
+    public void testQuantileOfTwoDigests() {
+        logger.info("TDigest test case reading a quantile over two digests together.");
+
+        TDigest lower = new TDigest(100);
+        TDigest upper = new TDigest(100);
+        for (int i = 1; i <= 1000; i++) {
+            lower.add(i);
+            upper.add(1000 + i);
+        }
+        byte[] lowerBytes = lower.toBytes();
+        byte[] upperBytes = upper.toBytes();
+        AssertJUnit.assertEquals(1000.5, lower.quantile(0.5, upper), 1.0);
+        AssertJUnit.assertEquals(1980.5, lower.quantile(0.99, upper), 1.0);
+        AssertJUnit.assertEquals(1.0, lower.quantile(0.0, upper));
+        AssertJUnit.assertEquals(2000.0, lower.quantile(1.0, upper));
+        AssertJUnit.assertTrue(Arrays.equals(lowerBytes, lower.toBytes()));
+        AssertJUnit.assertTrue(Arrays.equals(upperBytes, upper.toBytes()));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDecodeHugeCompression() {
+        logger.info("TDigest test case decoding a sketch whose compression is too large to allocate.");
+
+        TDigest.fromBytes(encodedHeader(1e9, 0, 0));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDecodeTooManyCentroids() {
+        logger.info("TDigest test case decoding a sketch with more centroids than its compression allows.");
+
+        TDigest.fromBytes(encodedHeader(100, Integer.MAX_VALUE, 0));
+    }
+
+    @Test
+    public void testDecodeRoundTrip() {
+        logger.info("TDigest test case decoding an encoded digest.");
+
+        TDigest digest = new TDigest(TDigest.MAX_COMPRESSION);
+        for (int i = 0; i < 100000; i++) {
+            digest.add(i);
+        }
+        AssertJUnit.assertTrue(digest.sameAs(TDigest.fromBytes(digest.toBytes())));
+    }
+
+    private static byte[] encodedHeader(double compression, int centroidCount, int bufferCount) {
+        return ByteBuffer.allocate(1 + 3 * Double.BYTES + 2 * Integer.BYTES).put((byte) 2).putDouble(compression)
+                .putDouble(0).putDouble(1).putInt(centroidCount).putInt(bufferCount).array();
+    }
+
+    private static double rank(double[] values, double value) {
+        Arrays.sort(values);
+        int index = Arrays.binarySearch(values, value);
+        return (double) (index < 0 ? -index - 1 : index) / values.length;
+    }
+}